@@ -0,0 +1,67 @@
+package com.journal.benchmark;
+
+import com.journal.entity.Diary;
+import com.journal.repository.DiaryJdbcRepository;
+import com.journal.repository.DiarySearchJdbcRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 启动完整 Spring 上下文的基准共用的配置
+ * 以命令行参数传入：SpringApplicationBuilder.properties() 设置的默认属性优先级最低，会被 application.yml 覆盖。
+ */
+final class BenchmarkContext {
+
+    /** 关闭 SQL 与调试日志，避免日志输出干扰测量 */
+    static final String[] QUIET_LOGGING = {
+            "spring.jpa.show-sql=false",
+            "spring.jpa.properties.hibernate.format_sql=false",
+            "logging.level.com.journal=WARN",
+            "logging.level.org.hibernate.SQL=WARN",
+            "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"
+    };
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * 内存 H2 (MySQL 兼容模式) 代替 MySQL，应用与管理端口均随机，搜索使用 LIKE 模式（H2 不支持 MATCH ... AGAINST）；
+     * 迁移脚本使用 MySQL 语法，关闭 Flyway 改由 ddl-auto 建表；
+     * 关闭按用户限流，基准以单个用户持续发请求
+     */
+    static String[] args(String database, String... overrides) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.main.banner-mode=off",
+                "server.port=0",
+                "management.server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.flyway.enabled=false",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "diary.search.mode=like",
+                "diary.storage.migration.enabled=false",
+                "diary.rate-limit.enabled=false"));
+        properties.addAll(Arrays.asList(overrides));
+        return properties.stream().map(property -> "--" + property).toArray(String[]::new);
+    }
+
+    static String[] quietArgs(String database, String... overrides) {
+        List<String> properties = new ArrayList<>(Arrays.asList(QUIET_LOGGING));
+        properties.addAll(Arrays.asList(overrides));
+        return args(database, properties.toArray(String[]::new));
+    }
+
+    /**
+     * 写入日记及其搜索副本
+     */
+    static void seed(ConfigurableApplicationContext context, List<Diary> diaries) {
+        context.getBean(DiaryJdbcRepository.class).batchInsert(diaries);
+        context.getBean(DiarySearchJdbcRepository.class).upsert(diaries);
+    }
+}
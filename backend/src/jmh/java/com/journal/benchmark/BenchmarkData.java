@@ -0,0 +1,74 @@
+package com.journal.benchmark;
+
+import com.journal.entity.Diary;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试数据：按固定种子生成中文日记，保证多次运行之间可比
+ */
+final class BenchmarkData {
+
+    static final Long USER_ID = 1L;
+    static final String KEYWORD = "咖啡";
+
+    private static final String[] SENTENCES = {
+            "今天天气真好，阳光明媚。",
+            "早上起来去公园跑了一圈，感觉整个人都精神了许多。",
+            "下午和朋友一起去喝咖啡，聊了很多有趣的话题。",
+            "晚上回家做了自己喜欢吃的菜，感觉很满足。",
+            "工作上遇到了一些挑战，不过最终还是解决了。",
+            "窗外下着小雨，适合安静地读一本书。",
+            "周末去爬山了，山顶的风景非常壮观。",
+            "希望明天也能有这样的好心情！\n\n"
+    };
+    private static final String[] MOODS = {"happy", "calm", "sad", "excited", "tired"};
+    private static final String[] WEATHERS = {"sunny", "cloudy", "rainy", "snowy"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成约 contentLength 个字符的正文
+     */
+    static String content(SplittableRandom random, int contentLength) {
+        StringBuilder sb = new StringBuilder(contentLength + 32);
+        while (sb.length() < contentLength) {
+            sb.append(SENTENCES[random.nextInt(SENTENCES.length)]);
+        }
+        return sb.toString();
+    }
+
+    static List<Diary> diaries(int count, int contentLength) {
+        return diaries(0, count, contentLength);
+    }
+
+    /**
+     * 生成第 [start, start + count) 篇日记，数据量较大时可分段生成后写入数据库
+     */
+    static List<Diary> diaries(int start, int count, int contentLength) {
+        SplittableRandom random = new SplittableRandom(42L + start);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 8, 0);
+        List<Diary> diaries = new ArrayList<>(count);
+        for (int i = start; i < start + count; i++) {
+            LocalDateTime createdAt = base.plusMinutes(i * 37L);
+            Diary diary = new Diary();
+            diary.setId((long) i + 1);
+            diary.setUserId(USER_ID);
+            diary.setTitle("第 " + (i + 1) + " 篇日记");
+            diary.setContent(content(random, contentLength));
+            diary.setMood(MOODS[random.nextInt(MOODS.length)]);
+            diary.setWeather(WEATHERS[random.nextInt(WEATHERS.length)]);
+            diary.setDiaryDate(LocalDate.from(createdAt));
+            diary.setCreatedAt(createdAt);
+            diary.setUpdatedAt(createdAt);
+            diary.setVersion(0L);
+            diaries.add(diary);
+        }
+        return diaries;
+    }
+}
@@ -0,0 +1,67 @@
+package com.journal.benchmark;
+
+import com.journal.util.ContentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 正文压缩存储的 CPU 开销：写入时的压缩与读取时的解压，对照原样存储的 UTF-8 编解码。
+ * 节省的存储与 I/O 见 setup 输出的压缩前后字节数；生成数据的句子重复度较高，真实日记的压缩率会低一些。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentCompressionBenchmark {
+
+    @Param({"200", "2000", "20000"})
+    private int contentLength;
+
+    private String content;
+    private byte[] raw;
+    private byte[] stored;
+
+    @Setup
+    public void setup() {
+        content = BenchmarkData.content(new SplittableRandom(42L), contentLength);
+        raw = content.getBytes(StandardCharsets.UTF_8);
+        stored = ContentCodec.encode(content);
+        System.out.printf("%n# %d chars: %d bytes UTF-8, %d bytes stored (%s)%n", content.length(), raw.length,
+                stored.length, ContentCodec.isCompressed(stored) ? "compressed" : "raw");
+    }
+
+    @Benchmark
+    public byte[] encodeRaw() {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeCompressed() {
+        return ContentCodec.encode(content);
+    }
+
+    @Benchmark
+    public String decodeRaw() {
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String decodeCompressed() {
+        return ContentCodec.decode(stored);
+    }
+}
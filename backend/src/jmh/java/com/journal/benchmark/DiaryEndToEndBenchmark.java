@@ -0,0 +1,125 @@
+package com.journal.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journal.JournalApplication;
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySlice;
+import com.journal.dto.DiarySummaryResponse;
+import com.journal.service.DiaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 端到端基准：启动完整的 Spring 上下文，以内存 H2 (MySQL 兼容模式) 代替 MySQL，
+ * 经 DiaryService 测量列表、游标分页、搜索与导出。读缓存关闭，搜索使用 LIKE 模式（H2 不支持 MATCH ... AGAINST）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class DiaryEndToEndBenchmark {
+
+    private static final int SEED_CHUNK = 1000;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"1000", "10000", "100000"})
+    private int entries;
+
+    @Param({"2000"})
+    private int contentLength;
+
+    private ConfigurableApplicationContext context;
+    private DiaryService diaryService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        context = new SpringApplicationBuilder(JournalApplication.class)
+                .run(BenchmarkContext.quietArgs("journal-benchmark",
+                        "diary.cache.enabled=false",
+                        "diary.export.fetch-size=500"));
+
+        for (int start = 0; start < entries; start += SEED_CHUNK) {
+            BenchmarkContext.seed(context, BenchmarkData.diaries(start, Math.min(SEED_CHUNK, entries - start), contentLength));
+        }
+
+        // JMH 的测量线程与 setup 线程不同，使用全局安全上下文
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(BenchmarkData.USER_ID, null, List.of()));
+
+        diaryService = context.getBean(DiaryService.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public Page<DiaryResponse> listFirstPage() {
+        return diaryService.getList(0, PAGE_SIZE).value();
+    }
+
+    @Benchmark
+    public Page<DiaryResponse> listLastPage() {
+        return diaryService.getList((entries - 1) / PAGE_SIZE, PAGE_SIZE).value();
+    }
+
+    @Benchmark
+    public Page<DiarySummaryResponse> summariesFirstPage() {
+        return diaryService.getSummaries(0, PAGE_SIZE).value();
+    }
+
+    @Benchmark
+    public DiarySlice sliceFirstPage() {
+        return diaryService.getSlice(null, PAGE_SIZE).value();
+    }
+
+    @Benchmark
+    public Page<DiaryResponse> search() {
+        return diaryService.search(BenchmarkData.KEYWORD, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        ExportSerializationBenchmark.CountingOutputStream out = new ExportSerializationBenchmark.CountingOutputStream();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            diaryService.exportAll(diary -> {
+                try {
+                    generator.writeObject(diary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+        return out.count;
+    }
+}
@@ -0,0 +1,49 @@
+package com.journal.benchmark;
+
+import com.journal.dto.DiaryResponse;
+import com.journal.entity.Diary;
+import com.journal.service.DiaryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体到响应 DTO 的映射，对应列表页与导出的逐条转换
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DiaryMappingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int entries;
+
+    @Param({"2000"})
+    private int contentLength;
+
+    private List<Diary> diaries;
+
+    @Setup
+    public void setup() {
+        diaries = BenchmarkData.diaries(entries, contentLength);
+    }
+
+    @Benchmark
+    public List<DiaryResponse> toResponse() {
+        return diaries.stream().map(DiaryMapper::toResponse).toList();
+    }
+}
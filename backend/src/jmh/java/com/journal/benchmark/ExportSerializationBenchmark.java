@@ -0,0 +1,149 @@
+package com.journal.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journal.dto.DiaryResponse;
+import com.journal.service.DiaryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 导出序列化：原先的 StringBuilder + escapeJson 整体拼接 vs 现在的 JsonGenerator 流式写出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExportSerializationBenchmark {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Param({"1000", "10000", "100000"})
+    private int entries;
+
+    @Param({"2000"})
+    private int contentLength;
+
+    private List<DiaryResponse> diaries;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setup() {
+        diaries = BenchmarkData.diaries(entries, contentLength).stream()
+                .map(DiaryMapper::toResponse)
+                .toList();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public long legacyStringBuilder() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        out.write(legacyExport(diaries).getBytes(StandardCharsets.UTF_8));
+        return out.count;
+    }
+
+    @Benchmark
+    public long streamingJsonGenerator() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        writeStreaming(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long streamingJsonGeneratorGzip() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        writeStreaming(gzip);
+        gzip.finish();
+        return out.count;
+    }
+
+    private void writeStreaming(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.writeStartArray();
+            for (DiaryResponse diary : diaries) {
+                generator.writeObject(diary);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * 原 DiaryController.exportAll 的实现，保留作对照
+     */
+    private static String legacyExport(List<DiaryResponse> diaries) {
+        StringBuilder json = new StringBuilder("[\n");
+        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE;
+
+        for (int i = 0; i < diaries.size(); i++) {
+            DiaryResponse d = diaries.get(i);
+            json.append("  {\n");
+            json.append("    \"id\": ").append(d.getId()).append(",\n");
+            json.append("    \"title\": ").append(escapeJson(d.getTitle())).append(",\n");
+            json.append("    \"content\": ").append(escapeJson(d.getContent())).append(",\n");
+            json.append("    \"mood\": ").append(escapeJson(d.getMood())).append(",\n");
+            json.append("    \"weather\": ").append(escapeJson(d.getWeather())).append(",\n");
+            json.append("    \"diaryDate\": \"").append(d.getDiaryDate().format(dateFormatter)).append("\",\n");
+            json.append("    \"createdAt\": \"").append(d.getCreatedAt().format(formatter)).append("\",\n");
+            json.append("    \"updatedAt\": \"").append(d.getUpdatedAt().format(formatter)).append("\"\n");
+            json.append("  }");
+            if (i < diaries.size() - 1) {
+                json.append(",");
+            }
+            json.append("\n");
+        }
+        json.append("]");
+        return json.toString();
+    }
+
+    private static String escapeJson(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\r", "\\r")
+                .replace("\t", "\\t") + "\"";
+    }
+
+    /**
+     * 只计数不保存的输出流，模拟网络写出
+     */
+    static final class CountingOutputStream extends OutputStream {
+
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.journal.benchmark;
+
+import com.journal.service.JWTService;
+import com.journal.service.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 验证：每次完整解析验签 vs 已验签令牌缓存命中
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JWTService jwtService;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JWTService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jwtService, "secret", "benchmark-secret-key-must-be-at-least-32-characters");
+        ReflectionTestUtils.setField(jwtService, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(jwtService, "cacheMaximumSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken(BenchmarkData.USER_ID, "benchmark");
+        jwtService.verify(token);
+    }
+
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtService.extractClaims(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(BenchmarkData.USER_ID, "benchmark");
+    }
+}
@@ -0,0 +1,93 @@
+package com.journal.benchmark;
+
+import com.journal.JournalApplication;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySlice;
+import com.journal.service.DiaryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志配置对吞吐量的影响：默认配置（show-sql、format_sql、com.journal DEBUG、绑定参数 TRACE，同步写控制台）
+ * 与 prod profile（只记录慢查询，异步写出）。读缓存关闭，每次调用都执行 SQL。
+ * 默认配置下 SQL 与参数日志会写入 JMH 输出，这部分开销正是测量对象。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LoggingOverheadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"default", "prod"})
+    private String profile;
+
+    @Param({"2000"})
+    private int contentLength;
+
+    private ConfigurableApplicationContext context;
+    private DiaryService diaryService;
+    private DiaryRequest request;
+
+    @Setup
+    public void setup() {
+        String database = "journal-logging-" + profile;
+        String[] args = profile.equals("prod")
+                ? BenchmarkContext.args(database, "spring.profiles.active=prod", "diary.cache.enabled=false")
+                : BenchmarkContext.args(database, "diary.cache.enabled=false");
+        context = new SpringApplicationBuilder(JournalApplication.class).run(args);
+        BenchmarkContext.seed(context, BenchmarkData.diaries(1000, contentLength));
+
+        // JMH 的测量线程与 setup 线程不同，使用全局安全上下文
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(BenchmarkData.USER_ID, null, List.of()));
+
+        diaryService = context.getBean(DiaryService.class);
+        request = new DiaryRequest();
+        request.setTitle("基准测试");
+        request.setContent(BenchmarkData.content(new SplittableRandom(7L), contentLength));
+        request.setMood("calm");
+        request.setWeather("sunny");
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        context.close();
+    }
+
+    @Benchmark
+    public DiarySlice sliceFirstPage() {
+        return diaryService.getSlice(null, PAGE_SIZE).value();
+    }
+
+    @Benchmark
+    public DiaryResponse create() {
+        return diaryService.create(request);
+    }
+}
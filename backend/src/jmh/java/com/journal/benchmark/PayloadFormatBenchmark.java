@@ -0,0 +1,87 @@
+package com.journal.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.journal.dto.DiaryResponse;
+import com.journal.service.DiaryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 响应体格式：JSON（含原导出的缩进格式）、CBOR、Smile，以及是否 gzip。
+ * entries=20 对应列表页，1000 对应导出；耗时为序列化与压缩的 CPU 开销，
+ * 各组合的字节数在 setup 中输出，按目标网络带宽折算传输时间即可得到端到端的差异。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Param({"20", "1000"})
+    private int entries;
+
+    @Param({"2000"})
+    private int contentLength;
+
+    @Param({"json-pretty", "json", "cbor", "smile"})
+    private String format;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    private List<DiaryResponse> diaries;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setup() throws IOException {
+        diaries = BenchmarkData.diaries(entries, contentLength).stream()
+                .map(DiaryMapper::toResponse)
+                .toList();
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> Jackson2ObjectMapperBuilder.json();
+        };
+        mapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        System.out.printf("%n# %d entries as %s%s: %d bytes%n", entries, format, gzip ? "+gzip" : "", serialize());
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        ExportSerializationBenchmark.CountingOutputStream counting = new ExportSerializationBenchmark.CountingOutputStream();
+        OutputStream out = gzip ? new GZIPOutputStream(counting, BUFFER_SIZE) : counting;
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            if (format.equals("json-pretty")) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartArray();
+            for (DiaryResponse diary : diaries) {
+                generator.writeObject(diary);
+            }
+            generator.writeEndArray();
+        }
+        return counting.count;
+    }
+}
@@ -0,0 +1,66 @@
+package com.journal.benchmark;
+
+import com.journal.config.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流判定的开销：8 个线程争用同一用户的令牌桶（CAS 冲突最多）vs 各自不同用户。
+ * 额度设得足够大，测量的是放行路径；拒绝路径只多一次比较。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private final AtomicLong userSequence = new AtomicLong();
+
+    private RateLimiter rateLimiter;
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+
+        private Long userId;
+
+        @Setup
+        public void setup(RateLimiterBenchmark benchmark) {
+            userId = BenchmarkData.USER_ID + benchmark.userSequence.incrementAndGet();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("diary.rate-limit.default.permits-per-second", "1000000000")
+                .withProperty("diary.rate-limit.default.burst", "1000000");
+        rateLimiter = new RateLimiter(true, 100_000, 600_000, environment, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public long sharedUser() {
+        return rateLimiter.tryAcquire(BenchmarkData.USER_ID, RateLimiter.Category.DEFAULT);
+    }
+
+    @Benchmark
+    public long distinctUsers(ThreadUser user) {
+        return rateLimiter.tryAcquire(user.userId, RateLimiter.Category.DEFAULT);
+    }
+}
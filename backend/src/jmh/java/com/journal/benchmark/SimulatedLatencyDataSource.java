@@ -0,0 +1,70 @@
+package com.journal.benchmark;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 为每次语句执行增加固定延迟，模拟远程 MySQL 的网络往返；
+ * 内存 H2 没有 I/O 等待，不加延迟无法体现线程模型的差异。
+ */
+class SimulatedLatencyDataSource extends DelegatingDataSource {
+
+    private final long latencyMillis;
+
+    SimulatedLatencyDataSource(DataSource target, long latencyMillis) {
+        super(target);
+        this.latencyMillis = latencyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return (Connection) wrap(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return (Connection) wrap(Connection.class, super.getConnection(username, password));
+    }
+
+    private Object wrap(Class<?> type, Object target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                Thread.sleep(latencyMillis);
+            }
+            Object result = invoke(target, method, args);
+            if (target instanceof Connection && result instanceof Statement statement) {
+                return wrap(statementType(statement), statement);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Class<?> statementType(Statement statement) {
+        if (statement instanceof CallableStatement) {
+            return CallableStatement.class;
+        }
+        if (statement instanceof PreparedStatement) {
+            return PreparedStatement.class;
+        }
+        return Statement.class;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
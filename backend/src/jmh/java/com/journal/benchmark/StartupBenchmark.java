@@ -0,0 +1,78 @@
+package com.journal.benchmark;
+
+import com.journal.JournalApplication;
+import com.journal.service.JWTService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动耗时：每次测量都在新的 JVM 中冷启动完整的 Spring 上下文。
+ * contextStarted 测到 run() 返回，timeToFirstRequest 再加上第一个 HTTP 请求（GET /api/diaries）返回；
+ * fast-startup profile 把控制器、JPA 仓库等的初始化推迟到首个请求，两项之差反映推迟的开销。
+ * 以内存 H2 代替 MySQL，Flyway 关闭、由 ddl-auto 建表，迁移与连接数据库的耗时不计入。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"default", "fast-startup"})
+    private String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public ConfigurableApplicationContext contextStarted() {
+        context = start();
+        return context;
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws IOException, InterruptedException {
+        context = start();
+        String token = context.getBean(JWTService.class).generateToken(BenchmarkData.USER_ID, "benchmark");
+        String port = context.getEnvironment().getProperty("local.server.port");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/diaries?size=20"))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(JournalApplication.class)
+                .run(BenchmarkContext.quietArgs("journal-startup", "spring.profiles.active=" + profile));
+    }
+}
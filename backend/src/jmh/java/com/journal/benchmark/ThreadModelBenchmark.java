@@ -0,0 +1,123 @@
+package com.journal.benchmark;
+
+import com.journal.JournalApplication;
+import com.journal.entity.Diary;
+import com.journal.service.JWTService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程与虚拟线程处理请求的吞吐量与尾延迟对比。
+ * 256 个并发客户端中 240 个调用不走缓存的搜索接口（受 10 个连接的连接池限制），
+ * 16 个读取已缓存的单篇日记（不访问数据库）。平台线程模式下 Tomcat 的 200 个工作线程
+ * 会被等待连接的搜索请求占满，缓存命中的请求也随之排队；虚拟线程模式下后者不受影响。
+ * 数据库每次执行语句附加 dbLatencyMillis 毫秒延迟模拟远程 MySQL。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djdk.tracePinnedThreads=short"})
+public class ThreadModelBenchmark {
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"5"})
+    private long dbLatencyMillis;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest searchRequest;
+    private HttpRequest entryRequest;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = new SpringApplicationBuilder(JournalApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                                ? new SimulatedLatencyDataSource(dataSource, dbLatencyMillis)
+                                : bean;
+                    }
+                }))
+                .run(BenchmarkContext.quietArgs("journal-threads",
+                        "spring.threads.virtual.enabled=" + virtualThreads));
+
+        List<Diary> diaries = BenchmarkData.diaries(1000, 500);
+        BenchmarkContext.seed(context, diaries);
+        String token = context.getBean(JWTService.class).generateToken(BenchmarkData.USER_ID, "benchmark");
+        String port = context.getEnvironment().getProperty("local.server.port");
+        String base = "http://localhost:" + port + "/api/diaries";
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        searchRequest = HttpRequest.newBuilder(URI.create(base + "/search?size=20&keyword="
+                        + URLEncoder.encode(BenchmarkData.KEYWORD, StandardCharsets.UTF_8)))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        entryRequest = HttpRequest.newBuilder(URI.create(base + "/" + diaries.get(0).getId()))
+                .header("Authorization", "Bearer " + token)
+                .build();
+        // 预热缓存
+        send(entryRequest);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(240)
+    public int search() throws IOException, InterruptedException {
+        return send(searchRequest);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(16)
+    public int cachedEntry() throws IOException, InterruptedException {
+        return send(entryRequest);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode());
+        }
+        return response.body().length;
+    }
+}
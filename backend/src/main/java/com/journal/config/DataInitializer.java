@@ -1,64 +1,79 @@
 package com.journal.config;
 
 import com.journal.entity.Diary;
-import com.journal.entity.User;
-import com.journal.repository.DiaryRepository;
+import com.journal.repository.DiaryJdbcRepository;
+import com.journal.repository.DiarySearchJdbcRepository;
 import com.journal.repository.UserRepository;
+import com.journal.service.DiaryStatDeltas;
+import com.journal.service.DiaryStatsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * 示例数据，diary.seed.enabled=true 时加载（默认关闭，启动时不执行任何查询）
+ */
 @Component
+@ConditionalOnProperty(name = "diary.seed.enabled", havingValue = "true")
 @RequiredArgsConstructor
 @Slf4j
 public class DataInitializer implements CommandLineRunner {
 
-    private final DiaryRepository diaryRepository;
     private final UserRepository userRepository;
+    private final DiaryJdbcRepository diaryJdbcRepository;
+    private final DiarySearchJdbcRepository diarySearchRepository;
+    private final DiaryStatsService diaryStatsService;
+    private final TransactionTemplate transactionTemplate;
 
     @Override
     public void run(String... args) {
-        // 仅用于初始化空数据库，有用户后不再自动创建示例数据
-        if (diaryRepository.count() == 0 && userRepository.count() > 0) {
-            log.info("Database is empty, seeding sample data for first user...");
-
-            User firstUser = userRepository.findAll().get(0);
+        // 仅用于初始化空数据库：已有日记或还没有用户时不做任何事
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findFirstIdIfNoDiaries().ifPresent(this::seed));
+    }
 
-            Diary diary1 = new Diary();
-            diary1.setUserId(firstUser.getId());
-            diary1.setTitle("美好的一天");
-            diary1.setContent("今天天气真好，阳光明媚。早上起来去公园跑了一圈，感觉整个人都精神了许多。\n\n下午和朋友一起去喝咖啡，聊了很多有趣的话题。晚上回家做了自己喜欢吃的菜，感觉很满足。\n\n希望明天也能有这样的好心情！");
-            diary1.setMood("happy");
-            diary1.setWeather("sunny");
-            diary1.setCreatedAt(LocalDateTime.now().minusDays(2));
-            diary1.setUpdatedAt(LocalDateTime.now().minusDays(2));
+    private void seed(Long userId) {
+        log.info("Database is empty, seeding sample data for user {}...", userId);
+        LocalDateTime now = LocalDateTime.now();
 
-            Diary diary2 = new Diary();
-            diary2.setUserId(firstUser.getId());
-            diary2.setTitle(null);
-            diary2.setContent("今天下了一整天的雨，待在家里哪也没去。不过这样也好，难得有时间安静下来看看书，听听音乐。\n\n下午整理了一下房间，发现了很多以前的东西，每一样都有满满的回忆。\n\n雨天虽然让人心情有点低落，但也有一种特别的宁静。");
-            diary2.setMood("calm");
-            diary2.setWeather("rainy");
-            diary2.setCreatedAt(LocalDateTime.now().minusDays(1));
-            diary2.setUpdatedAt(LocalDateTime.now().minusDays(1));
+        List<Diary> diaries = List.of(
+                sample(userId, "美好的一天",
+                        "今天天气真好，阳光明媚。早上起来去公园跑了一圈，感觉整个人都精神了许多。\n\n下午和朋友一起去喝咖啡，聊了很多有趣的话题。晚上回家做了自己喜欢吃的菜，感觉很满足。\n\n希望明天也能有这样的好心情！",
+                        "happy", "sunny", now.minusDays(2)),
+                sample(userId, null,
+                        "今天下了一整天的雨，待在家里哪也没去。不过这样也好，难得有时间安静下来看看书，听听音乐。\n\n下午整理了一下房间，发现了很多以前的东西，每一样都有满满的回忆。\n\n雨天虽然让人心情有点低落，但也有一种特别的宁静。",
+                        "calm", "rainy", now.minusDays(1)),
+                sample(userId, "项目上线啦！",
+                        "经过几个月的努力，项目终于上线了！虽然过程很辛苦，加班加点是常态，但是看到成果的那一刻，所有的辛苦都值得了。\n\n团队一起吃了庆祝晚餐，大家都很开心。感谢队友们的支持和帮助。\n\n接下来要继续优化功能，收集用户反馈。加油！",
+                        "excited", "cloudy", now));
 
-            Diary diary3 = new Diary();
-            diary3.setUserId(firstUser.getId());
-            diary3.setTitle("项目上线啦！");
-            diary3.setContent("经过几个月的努力，项目终于上线了！虽然过程很辛苦，加班加点是常态，但是看到成果的那一刻，所有的辛苦都值得了。\n\n团队一起吃了庆祝晚餐，大家都很开心。感谢队友们的支持和帮助。\n\n接下来要继续优化功能，收集用户反馈。加油！");
-            diary3.setMood("excited");
-            diary3.setWeather("cloudy");
-            diary3.setCreatedAt(LocalDateTime.now());
-            diary3.setUpdatedAt(LocalDateTime.now());
+        // 与导入相同：一次批量插入，同一事务内写入搜索副本与统计增量
+        diaryJdbcRepository.batchInsert(diaries);
+        diarySearchRepository.upsert(diaries);
+        DiaryStatDeltas deltas = new DiaryStatDeltas(userId);
+        diaries.forEach(deltas::add);
+        diaryStatsService.apply(deltas);
 
-            diaryRepository.save(diary1);
-            diaryRepository.save(diary2);
-            diaryRepository.save(diary3);
+        log.info("Sample data seeded successfully!");
+    }
 
-            log.info("Sample data seeded successfully!");
-        }
+    private static Diary sample(Long userId, String title, String content, String mood, String weather,
+                                LocalDateTime createdAt) {
+        Diary diary = new Diary();
+        diary.setUserId(userId);
+        diary.setTitle(title);
+        diary.setContent(content);
+        diary.setMood(mood);
+        diary.setWeather(weather);
+        diary.setDiaryDate(createdAt.toLocalDate());
+        diary.setCreatedAt(createdAt);
+        diary.setUpdatedAt(createdAt);
+        return diary;
     }
 }
@@ -0,0 +1,37 @@
+package com.journal.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 二进制响应格式
+ * 请求头 Accept 为 application/cbor 或 application/x-jackson-smile 时以对应格式返回，其余仍为 JSON。
+ * 由 Spring Boot 的 Jackson2ObjectMapperBuilder 构建，日期格式等与 JSON 响应一致。
+ */
+@Configuration
+public class JacksonFormatConfig {
+
+    public static final String SMILE_MEDIA_TYPE = "application/x-jackson-smile";
+
+    /**
+     * CBOR 输出以自描述标签 (55799) 开头，导入时据此识别格式
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        CBORFactory factory = CBORFactory.builder()
+                .enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+                .build();
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(factory).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,41 @@
+package com.journal.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台任务（导出 / 导入 / 重建搜索副本）线程池
+ * 线程数即同时执行的任务数上限，也是任务占用的数据库连接数上限；排队的任务保存在 diary_job 表中，
+ * 由 DiaryJobService 在有空闲线程时认领提交，线程池队列不会积压。
+ * 守护线程：停机时不等待执行中的任务，重启后重新排队执行。
+ */
+@Configuration
+public class JobExecutorConfig {
+
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService jobExecutor(@Value("${diary.jobs.workers:2}") int workers,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                       MeterRegistry meterRegistry) {
+        ThreadFactory threadFactory;
+        if (virtualThreads) {
+            threadFactory = Thread.ofVirtual().name("diary-job-", 1).factory();
+        } else {
+            CustomizableThreadFactory platform = new CustomizableThreadFactory("diary-job-");
+            platform.setDaemon(true);
+            threadFactory = platform;
+        }
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "diary.job.executor");
+    }
+}
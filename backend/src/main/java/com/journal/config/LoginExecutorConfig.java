@@ -0,0 +1,35 @@
+package com.journal.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录密码校验专用线程池
+ * BCrypt 刻意消耗 CPU，放在固定大小的独立线程池中执行，队列满时直接拒绝，
+ * 避免登录高峰占满请求线程和 CPU 而拖慢日记接口。
+ */
+@Configuration
+public class LoginExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService loginExecutor(@Value("${auth.login.threads:0}") int threads,
+                                         @Value("${auth.login.queue-capacity:100}") int queueCapacity,
+                                         MeterRegistry meterRegistry) {
+        // 默认只占用一半 CPU 核数，其余留给日记接口
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("login-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "auth.login.executor");
+    }
+}
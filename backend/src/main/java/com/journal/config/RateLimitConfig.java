@@ -0,0 +1,33 @@
+package com.journal.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 日记接口按路径划分限流类别，每个请求只计入一个类别
+ */
+@Configuration
+@RequiredArgsConstructor
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private static final String[] SEARCH_PATHS = {"/diaries/search"};
+    private static final String[] EXPORT_PATHS = {
+            "/diaries/export", "/diaries/import", "/diaries/export-jobs", "/diaries/import-jobs", "/diaries/reindex-jobs"
+    };
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, RateLimiter.Category.SEARCH))
+                .addPathPatterns(SEARCH_PATHS);
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, RateLimiter.Category.EXPORT))
+                .addPathPatterns(EXPORT_PATHS);
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter, RateLimiter.Category.DEFAULT))
+                .addPathPatterns("/diaries", "/diaries/**")
+                .excludePathPatterns(SEARCH_PATHS)
+                .excludePathPatterns(EXPORT_PATHS);
+    }
+}
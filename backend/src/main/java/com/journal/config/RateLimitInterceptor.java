@@ -0,0 +1,39 @@
+package com.journal.config;
+
+import com.journal.exception.RateLimitExceededException;
+import com.journal.util.SecurityUtils;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 JWTAuthenticationFilter 写入 SecurityContext 的 userId 限流，每个实例只对应一个类别。
+ * 超额时抛出 RateLimitExceededException，由 GlobalExceptionHandler 转换为 429。
+ * 流式导出写完后的异步分派会再次经过拦截器，只在首次分派时计数。
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimiter.Category category;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, RateLimiter.Category category) {
+        this.rateLimiter = rateLimiter;
+        this.category = category;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        long waitNanos = rateLimiter.tryAcquire(SecurityUtils.findCurrentUserId(), category);
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            throw new RateLimitExceededException("请求过于频繁，请稍后再试", retryAfter);
+        }
+        return true;
+    }
+}
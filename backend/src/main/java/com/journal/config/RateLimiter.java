@@ -0,0 +1,143 @@
+package com.journal.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按用户限流（进程内）
+ * 每个 (用户, 类别) 一个令牌桶，按 GCRA 算法只保存一个理论到达时间 (TAT)，
+ * 取令牌是对该 AtomicLong 的一次 CAS，不加锁；桶在空闲期间已回满，过期淘汰后重建等价于满桶。
+ * 多实例部署时各实例分别计数，总额度为单实例的实例数倍。
+ */
+@Component
+public class RateLimiter {
+
+    public enum Category {
+        /** 普通读写：单篇、列表、摘要、日历、同步、统计及增删改 */
+        DEFAULT(20, 40),
+        /** 搜索：全文检索开销远高于主键与索引范围查询 */
+        SEARCH(2, 10),
+        /** 导出 / 导入：扫描或写入用户的全部日记 */
+        EXPORT(0.05, 2);
+
+        private final double defaultPermitsPerSecond;
+        private final int defaultBurst;
+
+        Category(double defaultPermitsPerSecond, int defaultBurst) {
+            this.defaultPermitsPerSecond = defaultPermitsPerSecond;
+            this.defaultBurst = defaultBurst;
+        }
+    }
+
+    private final boolean enabled;
+    private final Map<Category, Budget> budgets = new EnumMap<>(Category.class);
+    private final Cache<BucketKey, AtomicLong> buckets;
+    private final Cache<BucketKey, Boolean> exclusive;
+
+    public RateLimiter(@Value("${diary.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${diary.rate-limit.maximum-buckets:100000}") long maximumBuckets,
+                       @Value("${spring.mvc.async.request-timeout:600000}") long asyncTimeoutMillis,
+                       Environment environment,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        long idleNanos = TimeUnit.MINUTES.toNanos(1);
+        for (Category category : Category.values()) {
+            String prefix = "diary.rate-limit." + category.name().toLowerCase() + ".";
+            double permitsPerSecond = environment.getProperty(prefix + "permits-per-second", Double.class,
+                    category.defaultPermitsPerSecond);
+            int burst = environment.getProperty(prefix + "burst", Integer.class, category.defaultBurst);
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalStateException("Invalid rate limit for " + category + ": "
+                        + permitsPerSecond + "/s, burst " + burst);
+            }
+            Budget budget = new Budget(category, permitsPerSecond, burst, meterRegistry);
+            budgets.put(category, budget);
+            idleNanos = Math.max(idleNanos, budget.intervalNanos + budget.toleranceNanos);
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(Duration.ofNanos(idleNanos))
+                .build();
+        // 释放在流式响应写完后执行；请求超时或客户端断开导致未执行时由过期兜底
+        this.exclusive = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterWrite(Duration.ofMillis(asyncTimeoutMillis))
+                .build();
+    }
+
+    /**
+     * 取一个令牌，返回 0 表示放行，否则为需要等待的纳秒数
+     */
+    public long tryAcquire(Long userId, Category category) {
+        Budget budget = budgets.get(category);
+        if (!enabled || userId == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        AtomicLong tat = buckets.get(new BucketKey(userId, category), k -> new AtomicLong(now));
+        while (true) {
+            long current = tat.get();
+            long base = current - now > 0 ? current : now;
+            long wait = base - now - budget.toleranceNanos;
+            if (wait > 0) {
+                budget.rejected.increment();
+                return wait;
+            }
+            if (tat.compareAndSet(current, base + budget.intervalNanos)) {
+                budget.allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 同一用户同一类别同时只允许一个进行中的请求，返回 false 表示已有请求在处理；
+     * 成功时调用方须在完成后调用 release
+     */
+    public boolean tryEnter(Long userId, Category category) {
+        if (!enabled || userId == null) {
+            return true;
+        }
+        boolean entered = exclusive.asMap().putIfAbsent(new BucketKey(userId, category), Boolean.TRUE) == null;
+        if (!entered) {
+            budgets.get(category).rejected.increment();
+        }
+        return entered;
+    }
+
+    public void release(Long userId, Category category) {
+        if (userId != null) {
+            exclusive.invalidate(new BucketKey(userId, category));
+        }
+    }
+
+    private static final class Budget {
+
+        private final long intervalNanos;
+        private final long toleranceNanos;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private Budget(Category category, double permitsPerSecond, int burst, MeterRegistry meterRegistry) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+            this.toleranceNanos = intervalNanos * (burst - 1);
+            String tag = category.name().toLowerCase();
+            this.allowed = meterRegistry.counter("diary.rate.limit", "category", tag, "outcome", "allowed");
+            this.rejected = meterRegistry.counter("diary.rate.limit", "category", tag, "outcome", "rejected");
+        }
+    }
+
+    private record BucketKey(Long userId, Category category) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.journal.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 只读副本的复制延迟检查
+ * 定期在副本上执行 lag-query 读取延迟秒数，超过 max-lag-seconds、复制中断或无法连接时标记为不可用，
+ * 读取退回主库，直到下次检查恢复。lag-query 为空时只检查连接是否可用。
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final String lagColumn;
+    private final long maxLagSeconds;
+
+    private volatile boolean available = true;
+    private volatile double lagSeconds;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, String lagColumn, long maxLagSeconds,
+                             MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.lagColumn = lagColumn;
+        this.maxLagSeconds = maxLagSeconds;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-millis:5000}")
+    public void check() {
+        try (Connection connection = replica.getConnection()) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                update(connection.isValid(1) ? 0 : Double.NaN);
+                return;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                // 无结果说明该实例不是复制副本（如本地用独立实例模拟），视为无延迟
+                if (!rs.next()) {
+                    update(0);
+                    return;
+                }
+                long lag = rs.getLong(lagColumn);
+                // 延迟为 NULL 表示复制线程已停止
+                update(rs.wasNull() ? Double.NaN : lag);
+            }
+        } catch (SQLException e) {
+            markUnavailable(e);
+        }
+    }
+
+    /**
+     * 获取副本连接失败时由路由数据源调用，立即停止向副本路由
+     */
+    public void markUnavailable(SQLException e) {
+        if (available) {
+            log.warn("Read replica unavailable, routing reads to primary: {}", e.getMessage());
+        }
+        available = false;
+        lagSeconds = Double.NaN;
+    }
+
+    private void update(double lag) {
+        boolean healthy = !Double.isNaN(lag) && lag <= maxLagSeconds;
+        if (healthy != available) {
+            log.warn("Read replica {} (lag {}s)", healthy ? "back in rotation" : "lagging, routing reads to primary", lag);
+        }
+        lagSeconds = lag;
+        available = healthy;
+    }
+}
@@ -0,0 +1,99 @@
+package com.journal.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由
+ * readOnly 事务的连接取自只读副本，其余（写事务、无事务的语句）走主库。以下情况读取也走主库：
+ * 副本延迟超限或不可用；当前用户在 read-your-writes 时间窗内开启过写事务，避免读到复制前的旧数据；
+ * 调用方通过 onPrimary 显式要求读主库。
+ * 需由 LazyConnectionDataSourceProxy 包装，使连接在事务的 readOnly 标记设置之后才获取。
+ */
+public class RoutingDataSource extends AbstractDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_HINT = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaLagMonitor lagMonitor;
+    private final MeterRegistry meterRegistry;
+    private final Cache<Long, Boolean> recentWriters;
+
+    public RoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                             long readYourWritesMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagMonitor = lagMonitor;
+        this.meterRegistry = meterRegistry;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMillis))
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * action 内获取的连接一律来自主库，用于不能容忍复制延迟的只读事务。
+     * 连接在首条语句执行时才获取，因此在 readOnly 事务的方法体内调用即可生效。
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (PRIMARY_HINT.get() != null) {
+            return action.get();
+        }
+        PRIMARY_HINT.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_HINT.remove();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long userId = SecurityUtils.findCurrentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // 写事务在获取连接时登记，不区分事务最终是否真的写入，宁可多读几次主库
+            if (userId != null) {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+            return route(primary, "primary", "write");
+        }
+        if (PRIMARY_HINT.get() != null) {
+            return route(primary, "primary", "hint");
+        }
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return route(primary, "primary", "read-your-writes");
+        }
+        if (!lagMonitor.isAvailable()) {
+            return route(primary, "primary", "replica-unavailable");
+        }
+        try {
+            return route(replica, "replica", "read");
+        } catch (SQLException e) {
+            lagMonitor.markUnavailable(e);
+            return route(primary, "primary", "replica-unavailable");
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("RoutingDataSource 使用连接池配置的账号");
+    }
+
+    private Connection route(DataSource target, String name, String reason) throws SQLException {
+        Connection connection = target.getConnection();
+        meterRegistry.counter("datasource.routing", "target", name, "reason", reason).increment();
+        return connection;
+    }
+}
@@ -0,0 +1,32 @@
+package com.journal.config;
+
+import com.journal.service.DiaryContentMigration;
+import com.journal.service.DiaryJobService;
+import com.journal.service.DiaryPreviewBackfill;
+import com.journal.service.DiarySyncService;
+import com.journal.service.RefreshTokenService;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 开启 spring.main.lazy-initialization（fast-startup profile）时仍在启动阶段创建的 Bean。
+ * 数据库迁移须在首个请求之前完成；@Scheduled 只在 Bean 创建时注册，延迟创建的服务在首次被调用前不会执行
+ * 定时清理、任务调度与复制延迟检查；启动后的后台迁移与任务恢复同理。
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                FlywayMigrationInitializer.class,
+                ReplicaLagMonitor.class,
+                RefreshTokenService.class,
+                DiarySyncService.class,
+                DiaryJobService.class,
+                DiaryPreviewBackfill.class,
+                DiaryContentMigration.class);
+    }
+}
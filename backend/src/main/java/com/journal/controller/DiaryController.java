@@ -1,19 +1,46 @@
 package com.journal.controller;
 
+import com.journal.config.RateLimiter;
+import com.journal.dto.DiaryBatchRequest;
+import com.journal.dto.DiaryBatchResponse;
+import com.journal.dto.DiaryCalendar;
+import com.journal.dto.DiaryChanges;
+import com.journal.dto.DiaryImportResponse;
 import com.journal.dto.DiaryRequest;
 import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySlice;
+import com.journal.dto.DiaryStatsResponse;
+import com.journal.dto.DiarySummaryResponse;
+import com.journal.exception.RateLimitExceededException;
+import com.journal.service.CachedResult;
+import com.journal.service.DiaryBatchService;
+import com.journal.service.DiaryExportWriter;
+import com.journal.service.DiaryImportService;
 import com.journal.service.DiaryService;
+import com.journal.service.DiaryStatsService;
+import com.journal.service.DiarySyncService;
+import com.journal.util.CountingOutputStream;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/diaries")
@@ -21,7 +48,17 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class DiaryController {
 
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+    private static final long EXPORT_RETRY_AFTER_SECONDS = 30;
+
     private final DiaryService diaryService;
+    private final DiaryBatchService diaryBatchService;
+    private final DiaryImportService diaryImportService;
+    private final DiarySyncService diarySyncService;
+    private final DiaryStatsService diaryStatsService;
+    private final DiaryExportWriter diaryExportWriter;
+    private final MeterRegistry meterRegistry;
+    private final RateLimiter rateLimiter;
 
     @PostMapping
     public ResponseEntity<DiaryResponse> create(@Valid @RequestBody DiaryRequest request) {
@@ -29,6 +66,21 @@ public class DiaryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<DiaryBatchResponse> batch(@Valid @RequestBody DiaryBatchRequest request) {
+        DiaryBatchResponse response = diaryBatchService.execute(request.getOperations());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 导入 /export 导出的备份，请求体可以是 JSON、CBOR、Smile 或其 gzip 压缩文件
+     */
+    @PostMapping("/import")
+    public ResponseEntity<DiaryImportResponse> importDiaries(HttpServletRequest request) throws IOException {
+        DiaryImportResponse response = diaryImportService.importDiaries(request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<DiaryResponse> update(
             @PathVariable Long id,
@@ -45,94 +97,135 @@ public class DiaryController {
 
     @GetMapping("/{id}")
     public ResponseEntity<DiaryResponse> getById(@PathVariable Long id) {
-        DiaryResponse response = diaryService.getById(id);
-        return ResponseEntity.ok(response);
+        CachedResult<DiaryResponse> response = diaryService.getById(id);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
     }
 
     @GetMapping
     public ResponseEntity<Page<DiaryResponse>> getList(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Page<DiaryResponse> response = diaryService.getList(page, size);
-        return ResponseEntity.ok(response);
+        CachedResult<Page<DiaryResponse>> response = diaryService.getList(page, size);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
     }
 
-    @GetMapping("/search")
-    public ResponseEntity<Page<DiaryResponse>> search(
-            @RequestParam String keyword,
+    @GetMapping("/summaries")
+    public ResponseEntity<Page<DiarySummaryResponse>> getSummaries(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
-        Page<DiaryResponse> response = diaryService.search(keyword, page, size);
-        return ResponseEntity.ok(response);
+        CachedResult<Page<DiarySummaryResponse>> response = diaryService.getSummaries(page, size);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
     }
 
-    @GetMapping("/export")
-    public ResponseEntity<String> exportAll() {
-        List<DiaryResponse> diaries = diaryService.exportAll();
-
-        StringBuilder json = new StringBuilder("[\n");
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ISO_LOCAL_DATE;
-
-        for (int i = 0; i < diaries.size(); i++) {
-            DiaryResponse d = diaries.get(i);
-            json.append("  {\n");
-            json.append("    \"id\": ").append(d.getId()).append(",\n");
-            json.append("    \"title\": ").append(escapeJson(d.getTitle())).append(",\n");
-            json.append("    \"content\": ").append(escapeJson(d.getContent())).append(",\n");
-            json.append("    \"mood\": ").append(escapeJson(d.getMood())).append(",\n");
-            json.append("    \"weather\": ").append(escapeJson(d.getWeather())).append(",\n");
-            json.append("    \"diaryDate\": \"").append(d.getDiaryDate().format(dateFormatter)).append("\",\n");
-            json.append("    \"createdAt\": \"").append(d.getCreatedAt().format(formatter)).append("\",\n");
-            json.append("    \"updatedAt\": \"").append(d.getUpdatedAt().format(formatter)).append("\"\n");
-            json.append("  }");
-            if (i < diaries.size() - 1) {
-                json.append(",");
-            }
-            json.append("\n");
-        }
-        json.append("]");
+    /**
+     * 日期范围内的日记摘要（含首尾），按日期升序
+     */
+    @GetMapping("/range")
+    public ResponseEntity<List<DiarySummaryResponse>> getRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CachedResult<List<DiarySummaryResponse>> response = diaryService.getRange(from, to);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
+    }
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"diaries-export.json\"")
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(json.toString());
+    /**
+     * 月历，month 格式为 yyyy-MM
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<DiaryCalendar> getCalendar(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        CachedResult<DiaryCalendar> response = diaryService.getCalendar(month);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
     }
 
-    private String escapeJson(String value) {
-        if (value == null) {
-            return "null";
-        }
-        return "\"" + value.replace("\\", "\\\\")
-                .replace("\"", "\\\"")
-                .replace("\n", "\\n")
-                .replace("\r", "\\r")
-                .replace("\t", "\\t") + "\"";
+    @GetMapping(params = "after")
+    public ResponseEntity<DiarySlice> getSlice(
+            @RequestParam String after,
+            @RequestParam(defaultValue = "20") int size) {
+        CachedResult<DiarySlice> response = diaryService.getSlice(after, size);
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
     }
 
-    @ExceptionHandler(RuntimeException.class)
-    public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException e) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(new ErrorResponse(e.getMessage()));
+    /**
+     * 增量同步：返回 since 之后新建 / 修改的日记与删除墓碑，首次同步不传 since
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<DiaryChanges> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "500") int limit) {
+        DiaryChanges response = diarySyncService.getChanges(since, limit);
+        return ResponseEntity.ok(response);
     }
 
-    @ExceptionHandler(org.springframework.dao.DataIntegrityViolationException.class)
-    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
-            org.springframework.dao.DataIntegrityViolationException e) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse("Data validation failed"));
+    /**
+     * 心情、天气、月度分布与连续写作天数，读取增量维护的统计表
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<DiaryStatsResponse> getStats() {
+        CachedResult<DiaryStatsResponse> response = diaryStatsService.getStats();
+        return ResponseEntity.ok().eTag(response.etag()).body(response.value());
     }
 
-    @ExceptionHandler(org.springframework.web.bind.MethodArgumentNotValidException.class)
-    public ResponseEntity<ErrorResponse> handleValidationException(
-            org.springframework.web.bind.MethodArgumentNotValidException e) {
-        String message = e.getBindingResult().getFieldErrors().stream()
-                .map(error -> error.getField() + ": " + error.getDefaultMessage())
-                .findFirst()
-                .orElse("Validation failed");
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(new ErrorResponse(message));
+    /**
+     * 由日记数据重新计算统计
+     */
+    @PostMapping("/stats/rebuild")
+    public ResponseEntity<DiaryStatsResponse> rebuildStats() {
+        DiaryStatsResponse response = diaryStatsService.rebuild();
+        return ResponseEntity.ok(response);
     }
 
-    record ErrorResponse(String message) {}
+    @GetMapping("/search")
+    public ResponseEntity<Page<DiaryResponse>> search(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Page<DiaryResponse> response = diaryService.search(keyword, page, size);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 导出格式由 format 参数（json / cbor / smile）指定，未指定时按 Accept 协商，默认 JSON。
+     * 同一用户同时只处理一个导出：流式响应无法在多个连接间共享同一次查询，重复的并发导出直接返回 429
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestParam(defaultValue = "false") boolean pretty,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        DiaryExportWriter.ExportFormat exportFormat = diaryExportWriter.resolve(format, accept);
+        Long userId = SecurityUtils.getCurrentUserId();
+        if (!rateLimiter.tryEnter(userId, RateLimiter.Category.EXPORT)) {
+            throw new RateLimitExceededException("已有导出正在进行，请等待完成后再试", EXPORT_RETRY_AFTER_SECONDS);
+        }
+        StreamingResponseBody body = outputStream -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            CountingOutputStream counting = new CountingOutputStream(outputStream);
+            OutputStream out = gzip ? new GZIPOutputStream(counting, EXPORT_BUFFER_SIZE) : counting;
+            String outcome = "error";
+            try {
+                diaryExportWriter.write(userId, out, exportFormat, pretty);
+                outcome = "success";
+            } finally {
+                rateLimiter.release(userId, RateLimiter.Category.EXPORT);
+                // 统计实际写出的字节数（gzip 时为压缩后大小），客户端中途断开也会记录
+                String compression = gzip ? "gzip" : "none";
+                sample.stop(meterRegistry.timer("diary.export.duration",
+                        "format", exportFormat.name(), "compression", compression, "outcome", outcome));
+                DistributionSummary.builder("diary.export.size")
+                        .baseUnit("bytes")
+                        .tag("format", exportFormat.name())
+                        .tag("compression", compression)
+                        .register(meterRegistry)
+                        .record(counting.getCount());
+            }
+        };
+
+        String filename = DiaryExportWriter.fileName(exportFormat, gzip);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .contentType(DiaryExportWriter.contentType(exportFormat, gzip))
+                .body(body);
+    }
 }
@@ -0,0 +1,90 @@
+package com.journal.controller;
+
+import com.journal.dto.DiaryJobResponse;
+import com.journal.service.DiaryJobService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * 后台任务：提交后返回 202 与任务状态，客户端轮询 /jobs/{id}，导出完成后从 /jobs/{id}/file 下载
+ */
+@RestController
+@RequestMapping("/diaries")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DiaryJobController {
+
+    private final DiaryJobService diaryJobService;
+
+    @PostMapping("/export-jobs")
+    public ResponseEntity<DiaryJobResponse> submitExport(
+            @RequestParam(required = false) String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        return accepted(diaryJobService.submitExport(format, gzip));
+    }
+
+    /**
+     * 请求体与 /import 相同，可以是 JSON、CBOR、Smile 或其 gzip 压缩文件
+     */
+    @PostMapping("/import-jobs")
+    public ResponseEntity<DiaryJobResponse> submitImport(HttpServletRequest request) throws IOException {
+        return accepted(diaryJobService.submitImport(request.getInputStream()));
+    }
+
+    @PostMapping("/reindex-jobs")
+    public ResponseEntity<DiaryJobResponse> submitReindex() {
+        return accepted(diaryJobService.submitReindex());
+    }
+
+    /**
+     * 最近 20 个任务
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<DiaryJobResponse>> list() {
+        return ResponseEntity.ok(diaryJobService.list());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<DiaryJobResponse> get(@PathVariable Long id) {
+        return ResponseEntity.ok(diaryJobService.get(id));
+    }
+
+    /**
+     * 下载导出文件，支持 Range 断点续传（由 Spring MVC 对 Resource 返回 206）。
+     * 按 application/octet-stream 原样返回，不参与响应压缩，Range 偏移与文件字节一致
+     */
+    @GetMapping("/jobs/{id}/file")
+    public ResponseEntity<Resource> download(@PathVariable Long id) {
+        DiaryJobService.JobFile file = diaryJobService.openFile(id);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.fileName() + "\"")
+                .eTag("\"job-" + id + "-" + file.size() + "\"")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(new FileSystemResource(file.path()));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        diaryJobService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<DiaryJobResponse> accepted(DiaryJobResponse job) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/diaries/jobs/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+}
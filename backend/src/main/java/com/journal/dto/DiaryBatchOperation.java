@@ -0,0 +1,24 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryBatchOperation {
+
+    /** 必填，与其余字段一起由 DiaryBatchService 逐条校验 */
+    private Type op;
+
+    /** UPDATE / DELETE 时必填 */
+    private Long id;
+
+    /** CREATE / UPDATE 时必填，逐条校验，单条不合法不影响其他操作 */
+    private DiaryRequest diary;
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+}
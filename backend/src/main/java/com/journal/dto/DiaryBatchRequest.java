@@ -0,0 +1,15 @@
+package com.journal.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DiaryBatchRequest {
+
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 1000, message = "At most 1000 operations per request")
+    private List<DiaryBatchOperation> operations;
+}
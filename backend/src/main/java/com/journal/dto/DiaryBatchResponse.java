@@ -0,0 +1,17 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryBatchResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<DiaryBatchResult> results;
+}
@@ -0,0 +1,21 @@
+package com.journal.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiaryBatchResult {
+
+    /** 对应请求中 operations 的下标 */
+    private int index;
+    private DiaryBatchOperation.Type op;
+    private Long id;
+    /** 与单条接口一致的 HTTP 状态码语义 */
+    private int status;
+    private String message;
+}
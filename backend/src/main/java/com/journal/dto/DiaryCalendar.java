@@ -0,0 +1,21 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 月历：days 的第 i 位（从 0 起）表示该月第 i + 1 天有日记，
+ * moods 按天排列，取当天最后一篇日记的心情，无日记的天为 null
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryCalendar {
+
+    private String month;
+    private int days;
+    private List<String> moods;
+}
@@ -0,0 +1,28 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryChanges {
+
+    /** 新建或修改过的日记 */
+    private List<DiaryResponse> changed;
+
+    /** 已删除的日记 */
+    private List<DiaryTombstone> deleted;
+
+    /** 下次同步传入的 since，无变更时与请求相同 */
+    private String cursor;
+
+    /** 本次未返回全部变更，应立即以 cursor 继续请求 */
+    private boolean hasMore;
+
+    /** since 早于墓碑保留期，客户端应丢弃本地数据，以本次及后续结果重建 */
+    private boolean fullResync;
+}
@@ -0,0 +1,43 @@
+package com.journal.dto;
+
+import com.journal.entity.Diary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 列表游标，对应排序键 (diaryDate, createdAt, id)
+ * 对客户端不透明：以 URL 安全的 Base64 编码传输
+ */
+public record DiaryCursor(LocalDate diaryDate, LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_DATE = "-";
+
+    public static DiaryCursor of(Diary diary) {
+        return new DiaryCursor(diary.getDiaryDate(), diary.getCreatedAt(), diary.getId());
+    }
+
+    public static DiaryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            LocalDate diaryDate = NULL_DATE.equals(parts[0]) ? null : LocalDate.parse(parts[0]);
+            return new DiaryCursor(diaryDate, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+
+    public String encode() {
+        String raw = (diaryDate != null ? diaryDate.toString() : NULL_DATE)
+                + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
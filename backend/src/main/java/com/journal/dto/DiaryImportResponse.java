@@ -0,0 +1,24 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryImportResponse {
+
+    /** 文件是否被完整解析；解析中途出错时已导入的批次仍会保留 */
+    private boolean completed;
+    private long total;
+    private long imported;
+    private long duplicates;
+    private long invalid;
+    /** 最多返回前 20 条错误 */
+    private List<String> errors;
+    private long elapsedMillis;
+    private double entriesPerSecond;
+}
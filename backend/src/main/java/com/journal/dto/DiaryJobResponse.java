@@ -0,0 +1,33 @@
+package com.journal.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.journal.entity.DiaryJob;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryJobResponse {
+
+    private Long id;
+    private DiaryJob.Type type;
+    private DiaryJob.Status status;
+    private String format;
+    private boolean gzip;
+
+    /** 导出任务成功后的文件大小，通过 /diaries/jobs/{id}/file 下载 */
+    private Long fileSize;
+
+    /** 导入任务为 DiaryImportResponse，重建搜索副本任务为 {"indexed": 日记数} */
+    private JsonNode result;
+
+    private String error;
+    private int attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
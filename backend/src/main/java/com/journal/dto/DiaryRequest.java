@@ -22,4 +22,7 @@ public class DiaryRequest {
     private String weather;
 
     private LocalDate diaryDate;
+
+    /** 修改时携带读取到的版本号，版本不一致时拒绝覆盖；为空则不做版本校验 */
+    private Long version;
 }
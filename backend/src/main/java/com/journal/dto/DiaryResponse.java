@@ -1,5 +1,6 @@
 package com.journal.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -20,4 +21,9 @@ public class DiaryResponse {
     private LocalDate diaryDate;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
+
+    /** 搜索命中摘要，仅搜索接口返回 */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String highlight;
 }
@@ -0,0 +1,20 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiarySlice {
+
+    private List<DiaryResponse> content;
+
+    /** 下一页游标，没有更多数据时为 null */
+    private String nextCursor;
+
+    private boolean hasNext;
+}
@@ -0,0 +1,30 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryStatsResponse {
+
+    private long totalEntries;
+    private long totalWords;
+
+    /** 各心情 / 天气的日记数 */
+    private Map<String, Long> moods;
+    private Map<String, Long> weathers;
+
+    /** 按月（yyyy-MM）统计的日记数与字数 */
+    private Map<String, Long> entriesByMonth;
+    private Map<String, Long> wordsByMonth;
+
+    /** 截至今天（今天尚未写时截至昨天）的连续写作天数 */
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastEntryDate;
+}
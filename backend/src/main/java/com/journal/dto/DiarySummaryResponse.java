@@ -0,0 +1,25 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiarySummaryResponse {
+
+    private Long id;
+    private String title;
+    private String preview;
+    private Integer wordCount;
+    private String mood;
+    private String weather;
+    private LocalDate diaryDate;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long version;
+}
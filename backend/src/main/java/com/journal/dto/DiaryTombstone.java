@@ -0,0 +1,20 @@
+package com.journal.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 已删除日记的墓碑
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaryTombstone {
+
+    private Long id;
+    private LocalDateTime deletedAt;
+    private Long version;
+}
@@ -12,4 +12,7 @@ public class LoginResponse {
     private String token;
     private Long userId;
     private String username;
+    private String refreshToken;
+    /** 访问令牌有效期（秒） */
+    private long expiresIn;
 }
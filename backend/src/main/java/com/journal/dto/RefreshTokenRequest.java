@@ -0,0 +1,11 @@
+package com.journal.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+
+    @NotBlank(message = "刷新令牌不能为空")
+    private String refreshToken;
+}
@@ -0,0 +1,31 @@
+package com.journal.dto;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * 增量同步位置，对应排序键 (updatedAt, id)，格式为 "updatedAt,id"，如 2024-05-01T08:30:00.123456,42
+ */
+public record SyncCursor(LocalDateTime updatedAt, Long id) {
+
+    /** 从头同步的起点 */
+    public static final SyncCursor START = new SyncCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    public static SyncCursor parse(String value) {
+        int separator = value.lastIndexOf(',');
+        if (separator < 0) {
+            throw new IllegalArgumentException("无效的同步位置");
+        }
+        try {
+            return new SyncCursor(LocalDateTime.parse(value.substring(0, separator).trim()),
+                    Long.parseLong(value.substring(separator + 1).trim()));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("无效的同步位置", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return updatedAt + "," + id;
+    }
+}
@@ -0,0 +1,22 @@
+package com.journal.entity;
+
+import com.journal.util.ContentCodec;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * 正文列在库中以二进制存储，较长的正文压缩后写入，读取时透明解压
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(String attribute) {
+        return ContentCodec.encode(attribute);
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] dbData) {
+        return ContentCodec.decode(dbData);
+    }
+}
@@ -1,10 +1,12 @@
 package com.journal.entity;
 
+import com.journal.util.DiaryTextUtils;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -13,8 +15,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "diary", indexes = {
     @Index(name = "idx_created_at", columnList = "created_at"),
-    @Index(name = "idx_user_id", columnList = "user_id")
+    @Index(name = "idx_user_date_created_id", columnList = "user_id, diary_date, created_at, id"),
+    @Index(name = "idx_user_updated_id", columnList = "user_id, updated_at, id")
 })
+// 已删除的日记保留为墓碑供增量同步使用，JPQL 与按 id 加载均自动排除；原生 SQL 需自行过滤
+@SQLRestriction("deleted = false")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,9 +32,18 @@ public class Diary {
     @Column(length = 200)
     private String title;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
+    /** 正文以二进制存储，较长的正文压缩后写入；搜索使用 diary_search 中的明文副本 */
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
     private String content;
 
+    /** 正文摘要，写入时由 content 派生，列表查询只读此列 */
+    @Column(length = 200)
+    private String preview;
+
+    @Column(name = "word_count")
+    private Integer wordCount;
+
     @Column(length = 50)
     private String mood;
 
@@ -49,4 +63,20 @@ public class Diary {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
+
+    /** 乐观锁版本号，多设备同时编辑时用于检测冲突 */
+    @Version
+    @Column(name = "version", columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
+
+    /** 软删除标记，删除时清空标题与正文，updatedAt 记为删除时间 */
+    @Column(nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private boolean deleted;
+
+    @PrePersist
+    @PreUpdate
+    public void deriveTextFields() {
+        preview = DiaryTextUtils.preview(content);
+        wordCount = DiaryTextUtils.wordCount(content);
+    }
 }
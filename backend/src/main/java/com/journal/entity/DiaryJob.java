@@ -0,0 +1,78 @@
+package com.journal.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * 后台任务（导出 / 导入 / 重建搜索副本）
+ * 任务表即队列：提交时写入 QUEUED，工作线程以条件更新认领为 RUNNING，服务重启后未完成的任务重新排队。
+ * 文件位于 diary.jobs.directory 下，以任务 id 命名。
+ */
+@Entity
+@Table(name = "diary_job", indexes = {
+        @Index(name = "idx_diary_job_user_status", columnList = "user_id, status"),
+        @Index(name = "idx_diary_job_status", columnList = "status, id")
+})
+@Data
+@NoArgsConstructor
+public class DiaryJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    /** 导出格式：json / cbor / smile */
+    @Column(length = 16)
+    private String format;
+
+    @Column(nullable = false)
+    private boolean gzip;
+
+    /** 导出生成的文件大小 */
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    /** 任务结果的 JSON：导入为 DiaryImportResponse，重建搜索副本为处理的日记数 */
+    @Column(columnDefinition = "TEXT")
+    private String result;
+
+    @Column(length = 500)
+    private String error;
+
+    /** 已认领执行的次数，重启后超过上限的任务不再重试 */
+    @Column(nullable = false)
+    private int attempts;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Type {
+        EXPORT, IMPORT, REINDEX
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+}
@@ -0,0 +1,34 @@
+package com.journal.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 日记搜索副本：保存标题与解压后的正文，供全文索引与 LIKE 查询使用。
+ * diary 表的正文压缩存储，无法在 SQL 中匹配；列表等查询也不必再为搜索索引读取大字段。
+ * 由写入日记的服务同步维护，日记删除时随之删除。
+ */
+@Entity
+@Table(name = "diary_search", indexes = {
+    @Index(name = "idx_search_user", columnList = "user_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiarySearch {
+
+    @Id
+    @Column(name = "diary_id")
+    private Long diaryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 200)
+    private String title;
+
+    @Column(nullable = false, columnDefinition = "MEDIUMTEXT")
+    private String content;
+}
@@ -0,0 +1,50 @@
+package com.journal.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 按用户增量维护的日记统计
+ * dimension 为统计维度（total / mood / weather / month / day），bucket 为维度取值，
+ * 日记写入时在同一事务内累加增量，统计接口只读本表。
+ */
+@Entity
+@Table(name = "diary_stat", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_diary_stat_user_dimension_bucket", columnNames = {"user_id", "dimension", "bucket"})
+})
+@Data
+@NoArgsConstructor
+public class DiaryStat {
+
+    public static final String TOTAL = "total";
+    public static final String MOOD = "mood";
+    public static final String WEATHER = "weather";
+    public static final String MONTH = "month";
+    public static final String DAY = "day";
+    /** 元数据维度，重建时保留 */
+    public static final String META = "meta";
+    /** META 取值：重建标记，没有该行的用户统计尚未由日记数据初始化 */
+    public static final String BUILT = "built";
+    /** META 取值：统计版本，entries 在每次统计变化时递增，作为统计接口的 ETag */
+    public static final String GENERATION = "generation";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false, length = 16)
+    private String dimension;
+
+    @Column(nullable = false, length = 50)
+    private String bucket;
+
+    @Column(nullable = false)
+    private long entries;
+
+    @Column(nullable = false)
+    private long words;
+}
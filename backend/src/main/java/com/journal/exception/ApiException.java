@@ -0,0 +1,22 @@
+package com.journal.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 业务异常基类，由 GlobalExceptionHandler 按 status 转换为响应。
+ * 表示客户端请求的问题而非程序错误：不采集堆栈、不支持 suppressed，
+ * 扫描流量或异常客户端反复触发时只有一次对象分配的开销。
+ */
+public abstract class ApiException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    protected ApiException(HttpStatus status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
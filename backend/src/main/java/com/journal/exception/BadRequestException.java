@@ -0,0 +1,13 @@
+package com.journal.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 请求参数不合法
+ */
+public class BadRequestException extends ApiException {
+
+    public BadRequestException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
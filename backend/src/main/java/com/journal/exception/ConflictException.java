@@ -0,0 +1,13 @@
+package com.journal.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 与当前数据状态冲突，如版本号不一致
+ */
+public class ConflictException extends ApiException {
+
+    public ConflictException(String message) {
+        super(HttpStatus.CONFLICT, message);
+    }
+}
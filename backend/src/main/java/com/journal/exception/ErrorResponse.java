@@ -0,0 +1,4 @@
+package com.journal.exception;
+
+public record ErrorResponse(String message) {
+}
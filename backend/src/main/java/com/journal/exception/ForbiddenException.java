@@ -0,0 +1,13 @@
+package com.journal.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 资源存在但不属于当前用户
+ */
+public class ForbiddenException extends ApiException {
+
+    public ForbiddenException(String message) {
+        super(HttpStatus.FORBIDDEN, message);
+    }
+}
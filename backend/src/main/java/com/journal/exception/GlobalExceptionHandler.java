@@ -0,0 +1,103 @@
+package com.journal.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+/**
+ * 全局异常处理：业务异常按类型映射状态码，按异常类型与状态码计数 (api.errors)。
+ * 只有未预期的异常按 500 返回并记录堆栈，其余不写日志；
+ * Spring MVC 自身的 ServletException（405、415、缺少参数等）仍由默认处理器返回对应状态码。
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+@Slf4j
+public class GlobalExceptionHandler {
+
+    private final MeterRegistry meterRegistry;
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException e) {
+        return respond(e, e.getStatus(), e.getMessage(), String.valueOf(e.getRetryAfterSeconds()));
+    }
+
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<ErrorResponse> handleApiException(ApiException e) {
+        return respond(e, e.getStatus(), e.getMessage(), null);
+    }
+
+    @ExceptionHandler(AuthenticationException.class)
+    public ResponseEntity<ErrorResponse> handleAuthenticationException(AuthenticationException e) {
+        return respond(e, HttpStatus.UNAUTHORIZED, e.getMessage(), null);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
+        return respond(e, HttpStatus.BAD_REQUEST, e.getMessage(), null);
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTypeMismatchException(MethodArgumentTypeMismatchException e) {
+        return respond(e, HttpStatus.BAD_REQUEST, "参数格式错误: " + e.getName(), null);
+    }
+
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ErrorResponse> handleValidationException(MethodArgumentNotValidException e) {
+        String message = e.getBindingResult().getFieldErrors().stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .findFirst()
+                .orElse("Validation failed");
+        return respond(e, HttpStatus.BAD_REQUEST, message, null);
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleMessageNotReadableException(HttpMessageNotReadableException e) {
+        return respond(e, HttpStatus.BAD_REQUEST, "请求体格式错误", null);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException e) {
+        return respond(e, HttpStatus.CONFLICT, "日记已在其他设备上修改，请刷新后重试", null);
+    }
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException e) {
+        return respond(e, HttpStatus.BAD_REQUEST, "Data validation failed", null);
+    }
+
+    /**
+     * 未预期的异常：不向客户端暴露内部信息。实现了 ErrorResponse 的 Spring 异常（如异步请求超时）保留其状态码
+     */
+    @ExceptionHandler(RuntimeException.class)
+    public ResponseEntity<ErrorResponse> handleRuntimeException(RuntimeException e) {
+        if (e instanceof org.springframework.web.ErrorResponse errorResponse) {
+            return respond(e, errorResponse.getStatusCode(), errorResponse.getBody().getDetail(), null);
+        }
+        log.error("Unhandled exception", e);
+        return respond(e, HttpStatus.INTERNAL_SERVER_ERROR, "服务器内部错误", null);
+    }
+
+    private ResponseEntity<ErrorResponse> respond(Exception e, HttpStatusCode status, String message,
+                                                  String retryAfter) {
+        meterRegistry.counter("api.errors",
+                "exception", e.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(status);
+        if (retryAfter != null) {
+            builder.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return builder.body(new ErrorResponse(message));
+    }
+}
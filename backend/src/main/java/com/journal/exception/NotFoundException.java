@@ -0,0 +1,13 @@
+package com.journal.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 资源不存在，如日记 id 不存在或已删除
+ */
+public class NotFoundException extends ApiException {
+
+    public NotFoundException(String message) {
+        super(HttpStatus.NOT_FOUND, message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.journal.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * 未登录或登录已过期
+ */
+public class UnauthorizedException extends ApiException {
+
+    public UnauthorizedException(String message) {
+        super(HttpStatus.UNAUTHORIZED, message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.journal.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日历视图所需的日期与心情投影，id、更新时间与版本号用于计算 ETag
+ */
+public interface DiaryDayView {
+
+    Long getId();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+
+    LocalDate getDiaryDate();
+
+    String getMood();
+}
@@ -0,0 +1,84 @@
+package com.journal.repository;
+
+import com.journal.entity.Diary;
+import com.journal.util.ContentCodec;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 日记批量写入
+ * Diary 使用 IDENTITY 主键，Hibernate 无法批量插入；此处直接走 JDBC 批处理，
+ * 配合连接参数 rewriteBatchedStatements=true 由驱动改写为多值 INSERT，并回填自增主键。
+ * 在 JPA 事务内调用时与 EntityManager 共用同一连接和事务。
+ * 正文按 ContentCodec 编码写入，与实体的 CompressedTextConverter 一致；搜索副本由调用方写入。
+ */
+@Repository
+@RequiredArgsConstructor
+public class DiaryJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO diary "
+            + "(title, content, preview, word_count, mood, weather, diary_date, user_id, created_at, updated_at, version, deleted) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 批量插入日记并回填 id；createdAt / updatedAt 为空时取当前时间。
+     * updatedAt 是增量同步的变更时间，导入等场景不应沿用旧值，否则已同步过的客户端看不到这些日记
+     */
+    public void batchInsert(List<Diary> diaries) {
+        if (diaries.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Diary diary : diaries) {
+                    if (diary.getCreatedAt() == null) {
+                        diary.setCreatedAt(now);
+                    }
+                    if (diary.getUpdatedAt() == null) {
+                        diary.setUpdatedAt(now);
+                    }
+                    diary.deriveTextFields();
+                    ps.setString(1, diary.getTitle());
+                    ps.setBytes(2, ContentCodec.encode(diary.getContent()));
+                    ps.setString(3, diary.getPreview());
+                    ps.setInt(4, diary.getWordCount());
+                    ps.setString(5, diary.getMood());
+                    ps.setString(6, diary.getWeather());
+                    if (diary.getDiaryDate() != null) {
+                        ps.setDate(7, Date.valueOf(diary.getDiaryDate()));
+                    } else {
+                        ps.setNull(7, Types.DATE);
+                    }
+                    ps.setLong(8, diary.getUserId());
+                    ps.setTimestamp(9, Timestamp.valueOf(diary.getCreatedAt()));
+                    ps.setTimestamp(10, Timestamp.valueOf(diary.getUpdatedAt()));
+                    diary.setVersion(0L);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    int index = 0;
+                    while (keys.next() && index < diaries.size()) {
+                        diaries.get(index++).setId(keys.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
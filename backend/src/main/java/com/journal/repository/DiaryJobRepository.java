@@ -0,0 +1,56 @@
+package com.journal.repository;
+
+import com.journal.entity.DiaryJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DiaryJobRepository extends JpaRepository<DiaryJob, Long> {
+
+    Optional<DiaryJob> findByIdAndUserId(Long id, Long userId);
+
+    List<DiaryJob> findTop20ByUserIdOrderByIdDesc(Long userId);
+
+    long countByUserIdAndStatusIn(Long userId, Collection<DiaryJob.Status> statuses);
+
+    @Query("SELECT j.id FROM DiaryJob j WHERE j.status = :status ORDER BY j.id")
+    List<Long> findIdsByStatus(@Param("status") DiaryJob.Status status, Pageable pageable);
+
+    /**
+     * 条件更新认领任务 (QUEUED -> RUNNING)，返回 0 表示已被其他线程或实例认领
+     */
+    @Modifying
+    @Query("UPDATE DiaryJob j SET j.status = :to, j.startedAt = :now, j.attempts = j.attempts + 1 "
+            + "WHERE j.id = :id AND j.status = :from")
+    int claim(@Param("id") Long id, @Param("from") DiaryJob.Status from, @Param("to") DiaryJob.Status to,
+              @Param("now") LocalDateTime now);
+
+    /**
+     * 服务重启时中断的任务 (RUNNING)：未超过重试次数的重新排队
+     */
+    @Modifying
+    @Query("UPDATE DiaryJob j SET j.status = :to, j.startedAt = null "
+            + "WHERE j.status = :from AND j.attempts < :maxAttempts")
+    int requeue(@Param("from") DiaryJob.Status from, @Param("to") DiaryJob.Status to,
+                @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * 超过重试次数仍被中断的任务标记失败
+     */
+    @Modifying
+    @Query("UPDATE DiaryJob j SET j.status = :to, j.error = :error, j.finishedAt = :now WHERE j.status = :from")
+    int fail(@Param("from") DiaryJob.Status from, @Param("to") DiaryJob.Status to,
+             @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Query("SELECT j.id FROM DiaryJob j WHERE j.finishedAt < :before")
+    List<Long> findIdsFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,24 +1,205 @@
 package com.journal.repository;
 
 import com.journal.entity.Diary;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DiaryRepository extends JpaRepository<Diary, Long> {
 
     Page<Diary> findByUserIdOrderByDiaryDateDescCreatedAtDesc(Long userId, Pageable pageable);
 
-    @Query("SELECT d FROM Diary d WHERE d.userId = :userId AND (d.title LIKE %:keyword% OR d.content LIKE %:keyword%) ORDER BY d.diaryDate DESC, d.createdAt DESC")
+    /**
+     * 列表摘要投影，只读取摘要列不读取正文；历史数据的 preview 由 DiaryPreviewBackfill 在后台回填，回填前为空
+     */
+    @Query(value = "SELECT d.id AS id, d.title AS title, d.preview AS preview, " +
+            "COALESCE(d.wordCount, 0) AS wordCount, d.mood AS mood, d.weather AS weather, " +
+            "d.diaryDate AS diaryDate, d.createdAt AS createdAt, d.updatedAt AS updatedAt, d.version AS version " +
+            "FROM Diary d WHERE d.userId = :userId ORDER BY d.diaryDate DESC, d.createdAt DESC",
+            countQuery = "SELECT COUNT(d) FROM Diary d WHERE d.userId = :userId")
+    Page<DiarySummaryView> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 日期范围内的日记摘要，按日期升序，走 idx_user_date_created_id 的 (user_id, diary_date) 前缀范围扫描
+     */
+    @Query("SELECT d.id AS id, d.title AS title, d.preview AS preview, " +
+            "COALESCE(d.wordCount, 0) AS wordCount, d.mood AS mood, d.weather AS weather, " +
+            "d.diaryDate AS diaryDate, d.createdAt AS createdAt, d.updatedAt AS updatedAt, d.version AS version " +
+            "FROM Diary d WHERE d.userId = :userId AND d.diaryDate BETWEEN :from AND :to " +
+            "ORDER BY d.diaryDate, d.createdAt, d.id")
+    List<DiarySummaryView> findSummariesByUserIdAndDiaryDateBetween(@Param("userId") Long userId,
+                                                                    @Param("from") LocalDate from,
+                                                                    @Param("to") LocalDate to);
+
+    /**
+     * 日历：只取 id、更新时间、版本号、日期与心情，同一天按创建时间升序
+     */
+    @Query("SELECT d.id AS id, d.updatedAt AS updatedAt, d.version AS version, " +
+            "d.diaryDate AS diaryDate, d.mood AS mood FROM Diary d " +
+            "WHERE d.userId = :userId AND d.diaryDate BETWEEN :from AND :to ORDER BY d.diaryDate, d.createdAt")
+    List<DiaryDayView> findDaysByUserIdAndDiaryDateBetween(@Param("userId") Long userId,
+                                                           @Param("from") LocalDate from,
+                                                           @Param("to") LocalDate to);
+
+    /**
+     * 游标分页首页，排序与 idx_user_date_created_id 索引一致，不执行 COUNT 查询
+     */
+    @Query("SELECT d FROM Diary d WHERE d.userId = :userId ORDER BY d.diaryDate DESC, d.createdAt DESC, d.id DESC")
+    Slice<Diary> findFirstSlice(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 游标之后的一页。MySQL 降序排序时 diary_date 为 NULL 的行排在最后，因此一并纳入
+     */
+    @Query("SELECT d FROM Diary d WHERE d.userId = :userId AND (d.diaryDate IS NULL OR (d.diaryDate <= :diaryDate " +
+            "AND (d.diaryDate < :diaryDate OR d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)))) " +
+            "ORDER BY d.diaryDate DESC, d.createdAt DESC, d.id DESC")
+    Slice<Diary> findSliceAfter(@Param("userId") Long userId,
+                                @Param("diaryDate") LocalDate diaryDate,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
+
+    /**
+     * 游标已进入 diary_date 为 NULL 的尾部时的下一页
+     */
+    @Query("SELECT d FROM Diary d WHERE d.userId = :userId AND d.diaryDate IS NULL " +
+            "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) " +
+            "ORDER BY d.createdAt DESC, d.id DESC")
+    Slice<Diary> findUndatedSliceAfter(@Param("userId") Long userId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    /**
+     * LIKE 模糊搜索，匹配 diary_search 中的明文副本（diary 表的正文压缩存储）
+     */
+    @Query(value = "SELECT d.* FROM diary_search s JOIN diary d ON d.id = s.diary_id " +
+            "WHERE s.user_id = :userId AND d.deleted = false " +
+            "AND (s.title LIKE CONCAT('%', :keyword, '%') OR s.content LIKE CONCAT('%', :keyword, '%')) " +
+            "ORDER BY d.diary_date DESC, d.created_at DESC",
+            countQuery = "SELECT COUNT(*) FROM diary_search s WHERE s.user_id = :userId " +
+                    "AND (s.title LIKE CONCAT('%', :keyword, '%') OR s.content LIKE CONCAT('%', :keyword, '%'))",
+            nativeQuery = true)
     Page<Diary> searchByKeywordAndUserId(@Param("keyword") String keyword, @Param("userId") Long userId, Pageable pageable);
 
-    List<Diary> findByUserIdOrderByDiaryDateDescCreatedAtDesc(Long userId);
+    /**
+     * 基于 ngram 全文索引的搜索，按相关度排序，依赖迁移脚本 V9__diary_content_blob.sql 在 diary_search 上创建的
+     * ft_diary_search 索引。
+     */
+    @Query(value = "SELECT d.* FROM diary_search s JOIN diary d ON d.id = s.diary_id " +
+            "WHERE s.user_id = :userId AND d.deleted = false " +
+            "AND MATCH(s.title, s.content) AGAINST (:query IN BOOLEAN MODE) " +
+            "ORDER BY MATCH(s.title, s.content) AGAINST (:query IN BOOLEAN MODE) DESC, d.diary_date DESC, d.created_at DESC",
+            countQuery = "SELECT COUNT(*) FROM diary_search s WHERE s.user_id = :userId " +
+                    "AND MATCH(s.title, s.content) AGAINST (:query IN BOOLEAN MODE)",
+            nativeQuery = true)
+    Page<Diary> fullTextSearch(@Param("query") String query, @Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * 修改 / 删除前读取统计相关字段并锁定该行，保证统计增量基于被覆盖的值
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d.mood AS mood, d.weather AS weather, d.diaryDate AS diaryDate, " +
+            "COALESCE(d.wordCount, 0) AS wordCount, d.version AS version " +
+            "FROM Diary d WHERE d.id = :id AND d.userId = :userId")
+    Optional<DiaryStatView> lockStatFieldsByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * 统计重建：只读取统计相关字段
+     */
+    @Query("SELECT d.mood AS mood, d.weather AS weather, d.diaryDate AS diaryDate, " +
+            "COALESCE(d.wordCount, 0) AS wordCount, d.version AS version " +
+            "FROM Diary d WHERE d.userId = :userId")
+    List<DiaryStatView> findStatFieldsByUserId(@Param("userId") Long userId);
+
+    /**
+     * 带归属与版本条件的单条更新，返回受影响行数；version 为空时不校验版本。
+     * diaryDate 为空时保留原值。批量 JPQL 更新不触发 @UpdateTimestamp / @Version，由语句显式维护。
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Diary d SET d.title = :title, d.content = :content, d.preview = :preview, d.wordCount = :wordCount, " +
+            "d.mood = :mood, d.weather = :weather, " +
+            "d.diaryDate = COALESCE(:diaryDate, d.diaryDate), d.updatedAt = :updatedAt, d.version = d.version + 1 " +
+            "WHERE d.id = :id AND d.userId = :userId AND d.deleted = false AND (:version IS NULL OR d.version = :version)")
+    int updateByIdAndUserId(@Param("id") Long id,
+                            @Param("userId") Long userId,
+                            @Param("version") Long version,
+                            @Param("title") String title,
+                            @Param("content") String content,
+                            @Param("preview") String preview,
+                            @Param("wordCount") Integer wordCount,
+                            @Param("mood") String mood,
+                            @Param("weather") String weather,
+                            @Param("diaryDate") LocalDate diaryDate,
+                            @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 软删除：清空标题与正文并记录删除时间，行保留为增量同步的墓碑
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Diary d SET d.deleted = true, d.title = NULL, d.content = '', d.preview = NULL, d.wordCount = 0, " +
+            "d.updatedAt = :deletedAt, d.version = d.version + 1 " +
+            "WHERE d.id = :id AND d.userId = :userId AND d.deleted = false")
+    int softDeleteByIdAndUserId(@Param("id") Long id,
+                                @Param("userId") Long userId,
+                                @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * 批量操作的归属校验：一次查询取回本批次中属于该用户的日记，并锁定以保证统计增量准确
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Diary> findByIdInAndUserId(Collection<Long> ids, Long userId);
+
+    /**
+     * 重建搜索副本：按主键顺序分批读取用户未删除的日记
+     */
+    List<Diary> findByUserIdAndDeletedFalseAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
+
+    /**
+     * 导入去重：取回与本批次创建时间相同的已有日记，借助 idx_created_at 定位
+     */
+    List<Diary> findByUserIdAndCreatedAtIn(Long userId, Collection<LocalDateTime> createdAts);
+
+    @Modifying
+    @Query("UPDATE Diary d SET d.deleted = true, d.title = NULL, d.content = '', d.preview = NULL, d.wordCount = 0, " +
+            "d.updatedAt = :deletedAt, d.version = d.version + 1 " +
+            "WHERE d.id IN :ids AND d.userId = :userId AND d.deleted = false")
+    int softDeleteByIdInAndUserId(@Param("ids") Collection<Long> ids,
+                                  @Param("userId") Long userId,
+                                  @Param("deletedAt") LocalDateTime deletedAt);
+
+    /**
+     * 增量同步：按 (updatedAt, id) 顺序读取游标之后的变更，包括墓碑，走 idx_user_updated_id 索引。
+     * 只读取 until 之前的变更，给仍在提交中的事务留出时间，避免游标越过尚未可见的行。
+     */
+    @Query(value = "SELECT d.* FROM diary d WHERE d.user_id = :userId AND d.updated_at <= :until " +
+            "AND (d.updated_at > :updatedAt OR (d.updated_at = :updatedAt AND d.id > :id)) " +
+            "ORDER BY d.updated_at, d.id",
+            nativeQuery = true)
+    List<Diary> findChangesAfter(@Param("userId") Long userId,
+                                 @Param("updatedAt") LocalDateTime updatedAt,
+                                 @Param("id") Long id,
+                                 @Param("until") LocalDateTime until,
+                                 Pageable pageable);
 
-    boolean existsByIdAndUserId(Long id, Long userId);
+    /**
+     * 清理保留期之前的墓碑
+     */
+    @Modifying
+    @Query(value = "DELETE FROM diary WHERE deleted = true AND updated_at < :before", nativeQuery = true)
+    int purgeTombstones(@Param("before") LocalDateTime before);
 }
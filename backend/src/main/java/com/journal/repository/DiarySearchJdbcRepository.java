@@ -0,0 +1,74 @@
+package com.journal.repository;
+
+import com.journal.entity.Diary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 搜索副本 diary_search 的维护，在写入日记的同一事务内调用
+ */
+@Repository
+@RequiredArgsConstructor
+public class DiarySearchJdbcRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO diary_search (diary_id, user_id, title, content) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE title = VALUES(title), content = VALUES(content)";
+
+    /** 后台迁移只补齐缺失的副本，不覆盖迁移读取之后由接口写入的新内容 */
+    private static final String INSERT_MISSING_SQL = "INSERT INTO diary_search (diary_id, user_id, title, content) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE diary_id = diary_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsert(Collection<Diary> diaries) {
+        write(UPSERT_SQL, diaries);
+    }
+
+    /**
+     * 单条写入，修改接口直接以请求内容写入副本，无需回查日记
+     */
+    public void upsert(Long diaryId, Long userId, String title, String content) {
+        jdbcTemplate.update(UPSERT_SQL, diaryId, userId, title, content);
+    }
+
+    public void insertMissing(Collection<Diary> diaries) {
+        write(INSERT_MISSING_SQL, diaries);
+    }
+
+    public void deleteByDiaryIds(Collection<Long> diaryIds) {
+        if (diaryIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(diaryIds.size());
+        for (Long id : diaryIds) {
+            args.add(new Object[]{id});
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM diary_search WHERE diary_id = ?", args);
+    }
+
+    /**
+     * 删除用户已不存在或已删除日记的搜索副本
+     */
+    public int deleteOrphansByUserId(Long userId) {
+        return jdbcTemplate.update("DELETE FROM diary_search WHERE user_id = ? AND NOT EXISTS "
+                + "(SELECT 1 FROM diary d WHERE d.id = diary_search.diary_id AND d.deleted = FALSE)", userId);
+    }
+
+    private void write(String sql, Collection<Diary> diaries) {
+        if (diaries.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(diaries.size());
+        for (Diary diary : diaries) {
+            args.add(new Object[]{diary.getId(), diary.getUserId(), diary.getTitle(), diary.getContent()});
+        }
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+}
@@ -0,0 +1,38 @@
+package com.journal.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 统计增量写入
+ * 每个 (用户, 维度, 取值) 一条 INSERT ... ON DUPLICATE KEY UPDATE，按批提交；
+ * 调用方按固定顺序传入，并发事务以相同顺序加锁，避免死锁。
+ */
+@Repository
+@RequiredArgsConstructor
+public class DiaryStatJdbcRepository {
+
+    private static final String UPSERT_SQL = "INSERT INTO diary_stat (user_id, dimension, bucket, entries, words) "
+            + "VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE entries = entries + VALUES(entries), words = words + VALUES(words)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsert(Long userId, List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        for (Delta delta : deltas) {
+            args.add(new Object[]{userId, delta.dimension(), delta.bucket(), delta.entries(), delta.words()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    public record Delta(String dimension, String bucket, long entries, long words) {
+    }
+}
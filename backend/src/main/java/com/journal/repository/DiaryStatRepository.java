@@ -0,0 +1,23 @@
+package com.journal.repository;
+
+import com.journal.entity.DiaryStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DiaryStatRepository extends JpaRepository<DiaryStat, Long> {
+
+    List<DiaryStat> findByUserId(Long userId);
+
+    /**
+     * 重建前删除该用户的计数行，保留 META 行，generation 因此跨重建单调递增
+     */
+    @Modifying
+    @Query("DELETE FROM DiaryStat s WHERE s.userId = :userId AND s.dimension <> '" + DiaryStat.META + "'")
+    int deleteCountsByUserId(@Param("userId") Long userId);
+}
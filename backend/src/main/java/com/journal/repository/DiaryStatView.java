@@ -0,0 +1,20 @@
+package com.journal.repository;
+
+import java.time.LocalDate;
+
+/**
+ * 统计所需的日记字段投影
+ */
+public interface DiaryStatView {
+
+    String getMood();
+
+    String getWeather();
+
+    LocalDate getDiaryDate();
+
+    Integer getWordCount();
+
+    /** 修改前加锁读取时用于计算新版本号 */
+    Long getVersion();
+}
@@ -0,0 +1,30 @@
+package com.journal.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日记列表摘要投影，不含正文
+ */
+public interface DiarySummaryView {
+
+    Long getId();
+
+    String getTitle();
+
+    String getPreview();
+
+    Integer getWordCount();
+
+    String getMood();
+
+    String getWeather();
+
+    LocalDate getDiaryDate();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+
+    Long getVersion();
+}
@@ -2,6 +2,7 @@ package com.journal.repository;
 
 import com.journal.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -12,4 +13,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    /**
+     * 库中还没有任何日记时返回 id 最小的用户，供示例数据初始化使用；一条 LIMIT 1 查询，不扫描两张表
+     */
+    @Query(value = "SELECT u.id FROM `user` u WHERE NOT EXISTS (SELECT 1 FROM diary) ORDER BY u.id LIMIT 1",
+            nativeQuery = true)
+    Optional<Long> findFirstIdIfNoDiaries();
 }
@@ -3,29 +3,80 @@ package com.journal.service;
 import com.journal.dto.LoginRequest;
 import com.journal.dto.LoginResponse;
 import com.journal.entity.User;
+import com.journal.exception.RateLimitExceededException;
 import com.journal.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
-@RequiredArgsConstructor
+@Timed("auth.service")
 public class AuthService {
 
+    private static final long RETRY_AFTER_SECONDS = 1;
+
     private final UserRepository userRepository;
     private final JWTService jwtService;
+    private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
+    private final ExecutorService loginExecutor;
+    private final Counter successCounter;
+    private final Counter failureCounter;
+    private final Counter rejectedCounter;
+
+    public AuthService(UserRepository userRepository,
+                       JWTService jwtService,
+                       RefreshTokenService refreshTokenService,
+                       PasswordEncoder passwordEncoder,
+                       @Qualifier("loginExecutor") ExecutorService loginExecutor,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.jwtService = jwtService;
+        this.refreshTokenService = refreshTokenService;
+        this.passwordEncoder = passwordEncoder;
+        this.loginExecutor = loginExecutor;
+        this.successCounter = meterRegistry.counter("auth.login", "outcome", "success");
+        this.failureCounter = meterRegistry.counter("auth.login", "outcome", "failure");
+        this.rejectedCounter = meterRegistry.counter("auth.login", "outcome", "rejected");
+    }
 
-    public LoginResponse login(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("用户名或密码错误"));
+    /**
+     * 用户查询在调用线程完成，密码校验提交到登录线程池；线程池队列已满时返回 429
+     */
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
+        User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+        if (user == null) {
+            failureCounter.increment();
+            return CompletableFuture.failedFuture(new BadCredentialsException("用户名或密码错误"));
+        }
+
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(user, request.getPassword()), loginExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new RateLimitExceededException("登录请求过多，请稍后重试", RETRY_AFTER_SECONDS);
+        }
+    }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new RuntimeException("用户名或密码错误");
+    private LoginResponse authenticate(User user, String password) {
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            failureCounter.increment();
+            throw new BadCredentialsException("用户名或密码错误");
         }
+        successCounter.increment();
 
         String token = jwtService.generateToken(user.getId(), user.getUsername());
+        String refreshToken = refreshTokenService.issue(user.getId(), user.getUsername());
 
-        return new LoginResponse(token, user.getId(), user.getUsername());
+        return new LoginResponse(token, user.getId(), user.getUsername(),
+                refreshToken, jwtService.getExpirationSeconds());
     }
 }
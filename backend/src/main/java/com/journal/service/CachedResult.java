@@ -0,0 +1,7 @@
+package com.journal.service;
+
+/**
+ * 缓存结果及其 ETag，控制器据此响应 If-None-Match
+ */
+public record CachedResult<T>(T value, String etag) {
+}
@@ -0,0 +1,230 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryBatchOperation;
+import com.journal.dto.DiaryBatchResponse;
+import com.journal.dto.DiaryBatchResult;
+import com.journal.dto.DiaryRequest;
+import com.journal.entity.Diary;
+import com.journal.repository.DiaryJdbcRepository;
+import com.journal.repository.DiaryRepository;
+import com.journal.repository.DiarySearchJdbcRepository;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 批量创建 / 修改 / 删除日记
+ * 操作按 chunk 分批，每批一个事务：一次归属校验查询，新增走 JDBC 批量插入，
+ * 修改由 Hibernate 按 jdbc.batch_size 合并提交，删除合并为一条 DELETE。
+ * 某一批失败只回滚该批，结果中逐条标注。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("diary.service")
+public class DiaryBatchService {
+
+    private final DiaryRepository diaryRepository;
+    private final DiaryJdbcRepository diaryJdbcRepository;
+    private final DiarySearchJdbcRepository diarySearchRepository;
+    private final DiaryCache diaryCache;
+    private final DiaryStatsService diaryStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    @Value("${diary.batch.chunk-size:100}")
+    private int chunkSize;
+
+    public DiaryBatchResponse execute(List<DiaryBatchOperation> operations) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        DiaryBatchResult[] results = new DiaryBatchResult[operations.size()];
+
+        for (int start = 0; start < operations.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, operations.size());
+            executeChunk(userId, operations, start, end, results);
+        }
+
+        diaryCache.evict(userId, null);
+        for (DiaryBatchResult result : results) {
+            if (result.getId() != null && result.getOp() != DiaryBatchOperation.Type.CREATE) {
+                diaryCache.evict(userId, result.getId());
+            }
+        }
+
+        int succeeded = (int) Arrays.stream(results).filter(r -> r.getStatus() < 300).count();
+        return new DiaryBatchResponse(succeeded, results.length - succeeded, Arrays.asList(results));
+    }
+
+    private void executeChunk(Long userId, List<DiaryBatchOperation> operations, int start, int end,
+                              DiaryBatchResult[] results) {
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            DiaryBatchOperation operation = operations.get(i);
+            String error = validate(operation);
+            if (error != null) {
+                results[i] = operation == null
+                        ? new DiaryBatchResult(i, null, null, 400, error)
+                        : new DiaryBatchResult(i, operation.getOp(), operation.getId(), 400, error);
+            } else {
+                accepted.add(i);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<DiaryBatchResult> chunkResults = transactionTemplate.execute(
+                    status -> applyChunk(userId, operations, accepted));
+            for (DiaryBatchResult result : chunkResults) {
+                results[result.getIndex()] = result;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Batch chunk [{}, {}) failed for user {}: {}", start, end, userId, e.getMessage());
+            for (int i : accepted) {
+                results[i] = new DiaryBatchResult(i, operations.get(i).getOp(), operations.get(i).getId(),
+                        500, "批量写入失败，本批次已回滚");
+            }
+        }
+    }
+
+    private List<DiaryBatchResult> applyChunk(Long userId, List<DiaryBatchOperation> operations, List<Integer> indexes) {
+        Set<Long> targetIds = indexes.stream()
+                .map(operations::get)
+                .filter(op -> op.getOp() != DiaryBatchOperation.Type.CREATE)
+                .map(DiaryBatchOperation::getId)
+                .collect(Collectors.toSet());
+        Map<Long, Diary> owned = targetIds.isEmpty()
+                ? Map.of()
+                : diaryRepository.findByIdInAndUserId(targetIds, userId).stream()
+                        .collect(Collectors.toMap(Diary::getId, Function.identity()));
+
+        List<DiaryBatchResult> chunkResults = new ArrayList<>(indexes.size());
+        List<Diary> created = new ArrayList<>();
+        List<DiaryBatchResult> createdResults = new ArrayList<>();
+        Set<Long> deleted = new LinkedHashSet<>();
+        Set<Long> touched = new HashSet<>();
+        DiaryStatDeltas deltas = new DiaryStatDeltas(userId);
+
+        for (int index : indexes) {
+            DiaryBatchOperation operation = operations.get(index);
+            switch (operation.getOp()) {
+                case CREATE -> {
+                    Diary diary = new Diary();
+                    diary.setUserId(userId);
+                    apply(diary, operation.getDiary());
+                    if (diary.getDiaryDate() == null) {
+                        diary.setDiaryDate(LocalDate.now());
+                    }
+                    created.add(diary);
+                    DiaryBatchResult result = new DiaryBatchResult(index, operation.getOp(), null, 201, null);
+                    createdResults.add(result);
+                    chunkResults.add(result);
+                }
+                case UPDATE -> {
+                    Diary diary = owned.get(operation.getId());
+                    Long expectedVersion = operation.getDiary().getVersion();
+                    if (diary == null || deleted.contains(operation.getId())) {
+                        chunkResults.add(notFound(index, operation));
+                    } else if (expectedVersion != null && !expectedVersion.equals(diary.getVersion())) {
+                        chunkResults.add(new DiaryBatchResult(index, operation.getOp(), diary.getId(), 409,
+                                "日记已在其他设备上修改，请刷新后重试"));
+                    } else {
+                        deltas.remove(diary);
+                        apply(diary, operation.getDiary());
+                        // 立即重新派生 wordCount：同一批次中对该日记的后续更新或删除按本次内容扣除统计
+                        diary.deriveTextFields();
+                        deltas.add(diary);
+                        touched.add(diary.getId());
+                        chunkResults.add(new DiaryBatchResult(index, operation.getOp(), diary.getId(), 200, null));
+                    }
+                }
+                case DELETE -> {
+                    if (!owned.containsKey(operation.getId()) || !deleted.add(operation.getId())) {
+                        chunkResults.add(notFound(index, operation));
+                    } else {
+                        deltas.remove(owned.get(operation.getId()));
+                        chunkResults.add(new DiaryBatchResult(index, operation.getOp(), operation.getId(), 204, null));
+                    }
+                }
+            }
+        }
+
+        diaryJdbcRepository.batchInsert(created);
+        for (int i = 0; i < created.size(); i++) {
+            createdResults.get(i).setId(created.get(i).getId());
+            deltas.add(created.get(i));
+        }
+        if (!touched.isEmpty()) {
+            diaryRepository.flush();
+        }
+        List<Diary> indexed = new ArrayList<>(created);
+        touched.stream().filter(id -> !deleted.contains(id)).map(owned::get).forEach(indexed::add);
+        diarySearchRepository.upsert(indexed);
+        if (!deleted.isEmpty()) {
+            diaryRepository.softDeleteByIdInAndUserId(deleted, userId, LocalDateTime.now());
+            diarySearchRepository.deleteByDiaryIds(deleted);
+        }
+        diaryStatsService.apply(deltas);
+        return chunkResults;
+    }
+
+    /**
+     * 逐条校验，返回第一条错误信息，合法时返回 null。请求体不做级联校验，单条不合法只影响该条
+     */
+    private String validate(DiaryBatchOperation operation) {
+        if (operation == null) {
+            return "operation: Operation is required";
+        }
+        if (operation.getOp() == null) {
+            return "op: Operation type is required";
+        }
+        if (operation.getOp() != DiaryBatchOperation.Type.CREATE && operation.getId() == null) {
+            return "id: Id is required";
+        }
+        if (operation.getOp() == DiaryBatchOperation.Type.DELETE) {
+            return null;
+        }
+        if (operation.getDiary() == null) {
+            return "diary: Diary is required";
+        }
+        Set<ConstraintViolation<DiaryRequest>> violations = validator.validate(operation.getDiary());
+        return violations.stream()
+                .map(v -> "diary." + v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private static void apply(Diary diary, DiaryRequest request) {
+        diary.setTitle(request.getTitle());
+        diary.setContent(request.getContent());
+        diary.setMood(request.getMood());
+        diary.setWeather(request.getWeather());
+        if (request.getDiaryDate() != null) {
+            diary.setDiaryDate(request.getDiaryDate());
+        }
+    }
+
+    private static DiaryBatchResult notFound(int index, DiaryBatchOperation operation) {
+        return new DiaryBatchResult(index, operation.getOp(), operation.getId(), 404, "日记不存在");
+    }
+}
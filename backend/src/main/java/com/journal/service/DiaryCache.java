@@ -0,0 +1,185 @@
+package com.journal.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.journal.dto.DiaryResponse;
+import com.journal.util.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 日记读缓存
+ * 列表页按用户分代缓存：用户有写操作时只需递增该用户的代号，旧页面自然失效，不影响其他用户；
+ * 单篇日记按 id 缓存并记录所属用户。并发的相同未命中请求由 Caffeine 合并为一次加载；
+ * 关闭缓存时列表页仍按同样的 key 合并并发加载，只是不保留结果。
+ * 加载在调用线程上、缓存锁之外执行：Cache.get(key, loader) 会在 ConcurrentHashMap 的桶锁
+ * (synchronized) 内运行 loader，虚拟线程执行 JDBC 查询期间会因此钉住载体线程。
+ */
+@Component
+public class DiaryCache {
+
+    private final boolean enabled;
+    private final AsyncCache<PageKey, CachedResult<?>> pages;
+    private final AsyncCache<Long, CachedEntry> entries;
+    private final Cache<Long, Long> generations;
+    private final AtomicLong generationSequence = new AtomicLong();
+    private final SingleFlight<PageKey, CachedResult<?>> pageFlights = new SingleFlight<>();
+
+    public DiaryCache(@Value("${diary.cache.enabled:true}") boolean enabled,
+                      @Value("${diary.cache.maximum-pages:10000}") long maximumPages,
+                      @Value("${diary.cache.maximum-entries:10000}") long maximumEntries,
+                      @Value("${diary.cache.ttl-seconds:300}") long ttlSeconds,
+                      MeterRegistry meterRegistry) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.enabled = enabled;
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(maximumPages)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // 代号条目被淘汰后会分配新的全局序号，不会与残留页面的代号重合
+        this.generations = Caffeine.newBuilder()
+                .maximumSize(maximumPages)
+                .expireAfterAccess(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "diary.pages");
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "diary.entries");
+    }
+
+    /**
+     * 读取用户的某个列表页，未命中时调用 loader 加载并计算 ETag
+     */
+    public <T> CachedResult<T> getPage(Long userId, String query, Supplier<T> loader, Function<T, String> etag) {
+        return getPage(userId, query, () -> {
+            T value = loader.get();
+            return new CachedResult<>(value, etag.apply(value));
+        });
+    }
+
+    /**
+     * 同上，ETag 由 loader 一并给出，用于版本号不在返回值中的结果（如统计的 generation）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CachedResult<T> getPage(Long userId, String query, Supplier<CachedResult<T>> loader) {
+        PageKey key = new PageKey(userId, generationOf(userId), query);
+        Supplier<CachedResult<?>> load = loader::get;
+        // 写操作递增代号，写入后发起的读取不会并入写入前已开始的加载
+        return (CachedResult<T>) (enabled ? getOrLoad(pages, key, load) : pageFlights.execute(key, load));
+    }
+
+    /**
+     * 读取单篇日记，条目记录所属用户，由调用方校验权限；loader 返回 null 表示不存在
+     */
+    public CachedEntry getEntry(Long id, Function<Long, CachedEntry> loader) {
+        return enabled ? getOrLoad(entries, id, () -> loader.apply(id)) : loader.apply(id);
+    }
+
+    public static CachedEntry entryOf(Long userId, DiaryResponse response) {
+        return new CachedEntry(userId, new CachedResult<>(response, etagOf(List.of(response), 0)));
+    }
+
+    /**
+     * 写操作后失效该用户的列表页及被修改的日记，事务提交后再失效一次，避免并发读在提交前回填旧数据
+     */
+    public void evict(Long userId, Long diaryId) {
+        evictNow(userId, diaryId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId, diaryId);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long userId, Long diaryId) {
+        generations.put(userId, generationSequence.incrementAndGet());
+        if (diaryId != null) {
+            entries.synchronous().invalidate(diaryId);
+        }
+    }
+
+    /**
+     * 锁内只放入未完成的 future，由首个未命中的调用方在锁外加载；其余调用方等待该 future。
+     * 加载失败或结果为 null 时 Caffeine 自动移除该条目。
+     */
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private long generationOf(Long userId) {
+        return generations.get(userId, k -> generationSequence.incrementAndGet());
+    }
+
+    /**
+     * 由日记 id、更新时间与版本号计算弱 ETag，salt 用于区分内容相同但元数据不同的页面（如总条数）。
+     * 版本号每次写入都会递增，同一时间戳内的两次修改也能区分。
+     */
+    public static String etagOf(Collection<DiaryResponse> items, long salt) {
+        return etagOf(items, DiaryResponse::getId, DiaryResponse::getUpdatedAt, DiaryResponse::getVersion, salt);
+    }
+
+    public static <T> String etagOf(Collection<T> items, Function<T, Long> idOf,
+                                    Function<T, LocalDateTime> updatedAtOf, Function<T, Long> versionOf, long salt) {
+        long hash = 1125899906842597L + salt;
+        for (T item : items) {
+            hash = 31 * hash + idOf.apply(item);
+            LocalDateTime updatedAt = updatedAtOf.apply(item);
+            if (updatedAt != null) {
+                hash = 31 * hash + updatedAt.toEpochSecond(ZoneOffset.UTC);
+                hash = 31 * hash + updatedAt.getNano();
+            }
+            Long version = versionOf.apply(item);
+            if (version != null) {
+                hash = 31 * hash + version;
+            }
+        }
+        hash = 31 * hash + items.size();
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    record PageKey(Long userId, long generation, String query) {
+    }
+
+    public record CachedEntry(Long userId, CachedResult<DiaryResponse> result) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.journal.service;
+
+import com.journal.entity.Diary;
+import com.journal.repository.DiarySearchJdbcRepository;
+import com.journal.util.ContentCodec;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 历史日记的后台迁移：压缩较长的正文，并补齐 diary_search 搜索副本。
+ * 没有搜索副本的日记即为未迁移的数据，按主键顺序分批处理，每批一个事务，可随时中断，重启后继续。
+ * 只改写正文的存储形式，不修改 updated_at / version，增量同步的客户端不会因此重新下载。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiaryContentMigration {
+
+    private static final String SELECT_SQL = "SELECT d.id, d.version, d.user_id, d.title, d.content FROM diary d "
+            + "LEFT JOIN diary_search s ON s.diary_id = d.id "
+            + "WHERE d.id > ? AND d.deleted = FALSE AND s.diary_id IS NULL "
+            + "ORDER BY d.id LIMIT ?";
+
+    /** 带版本条件，迁移读取后被接口修改的日记跳过，新内容已由实体转换器压缩写入 */
+    private static final String COMPRESS_SQL = "UPDATE diary SET content = ? WHERE id = ? AND version = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DiarySearchJdbcRepository diarySearchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${diary.storage.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diary.storage.migration.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${diary.storage.migration.pause-millis:100}")
+    private long pauseMillis;
+
+    private volatile boolean stopped;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            worker = Thread.ofPlatform().name("diary-content-migration").daemon().start(this::migrate);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void migrate() {
+        long lastId = 0;
+        long migrated = 0;
+        long compressed = 0;
+        try {
+            while (!stopped) {
+                long afterId = lastId;
+                ChunkResult chunk = transactionTemplate.execute(status -> migrateChunk(afterId));
+                if (chunk == null || chunk.rows() == 0) {
+                    break;
+                }
+                lastId = chunk.lastId();
+                migrated += chunk.rows();
+                compressed += chunk.compressed();
+                if (chunk.rows() < chunkSize) {
+                    break;
+                }
+                // 分批之间让出数据库，避免与在线请求争抢
+                Thread.sleep(pauseMillis);
+            }
+            if (migrated > 0) {
+                log.info("Diary content migration finished: {} entries indexed, {} compressed", migrated, compressed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Diary content migration stopped after id {}: {}", lastId, e.getMessage());
+        }
+    }
+
+    private ChunkResult migrateChunk(long afterId) {
+        List<StoredContent> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new StoredContent(
+                rs.getLong("id"), rs.getLong("version"), rs.getLong("user_id"),
+                rs.getString("title"), rs.getBytes("content")), afterId, chunkSize);
+        if (rows.isEmpty()) {
+            return new ChunkResult(afterId, 0, 0);
+        }
+
+        List<Diary> indexed = new ArrayList<>(rows.size());
+        List<Object[]> updates = new ArrayList<>();
+        for (StoredContent row : rows) {
+            String content = ContentCodec.decode(row.content());
+            byte[] encoded = ContentCodec.encode(content);
+            if (!Arrays.equals(encoded, row.content())) {
+                updates.add(new Object[]{encoded, row.id(), row.version()});
+            }
+            Diary diary = new Diary();
+            diary.setId(row.id());
+            diary.setUserId(row.userId());
+            diary.setTitle(row.title());
+            diary.setContent(content);
+            indexed.add(diary);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(COMPRESS_SQL, updates);
+        }
+        diarySearchRepository.insertMissing(indexed);
+        return new ChunkResult(rows.get(rows.size() - 1).id(), rows.size(), updates.size());
+    }
+
+    private record StoredContent(long id, long version, long userId, String title, byte[] content) {
+    }
+
+    private record ChunkResult(long lastId, int rows, int compressed) {
+    }
+}
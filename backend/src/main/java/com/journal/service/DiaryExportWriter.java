@@ -0,0 +1,94 @@
+package com.journal.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journal.config.JacksonFormatConfig;
+import com.journal.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 导出文件的格式协商与写出，供流式导出接口和后台导出任务共用
+ */
+@Component
+@RequiredArgsConstructor
+public class DiaryExportWriter {
+
+    private final DiaryService diaryService;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    /**
+     * 导出格式由 format（json / cbor / smile）指定，未指定时按 Accept 协商，默认 JSON
+     */
+    public ExportFormat resolve(String format, String accept) {
+        List<ExportFormat> formats = List.of(
+                new ExportFormat("json", MediaType.APPLICATION_JSON, objectMapper),
+                new ExportFormat("cbor", MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper()),
+                new ExportFormat("smile", MediaType.parseMediaType(JacksonFormatConfig.SMILE_MEDIA_TYPE),
+                        smileConverter.getObjectMapper()));
+        if (format != null && !format.isBlank()) {
+            return formats.stream()
+                    .filter(f -> f.name().equalsIgnoreCase(format.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("不支持的导出格式: " + format));
+        }
+        if (accept != null && !accept.isBlank()) {
+            // 只匹配明确列出的类型，*/* 与 application/* 仍返回 JSON
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                for (ExportFormat candidate : formats) {
+                    if (!type.isWildcardSubtype() && type.getQualityValue() > 0
+                            && type.isCompatibleWith(candidate.mediaType())) {
+                        return candidate;
+                    }
+                }
+            }
+        }
+        return formats.get(0);
+    }
+
+    /**
+     * 写出用户的全部日记；不关闭 out，gzip 时写完 trailer
+     */
+    public void write(Long userId, OutputStream out, ExportFormat format, boolean pretty) throws IOException {
+        try (JsonGenerator generator = format.objectMapper().getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            if (pretty) {
+                generator.useDefaultPrettyPrinter();
+            }
+            generator.writeStartArray();
+            diaryService.exportAll(userId, diary -> {
+                try {
+                    generator.writeObject(diary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        }
+        if (out instanceof GZIPOutputStream gzipOut) {
+            gzipOut.finish();
+        }
+    }
+
+    public static String fileName(ExportFormat format, boolean gzip) {
+        return "diaries-export." + format.name() + (gzip ? ".gz" : "");
+    }
+
+    public static MediaType contentType(ExportFormat format, boolean gzip) {
+        return gzip ? MediaType.parseMediaType("application/gzip") : format.mediaType();
+    }
+
+    public record ExportFormat(String name, MediaType mediaType, ObjectMapper objectMapper) {
+    }
+}
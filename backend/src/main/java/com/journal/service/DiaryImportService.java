@@ -0,0 +1,300 @@
+package com.journal.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.format.DataFormatDetector;
+import com.fasterxml.jackson.core.format.MatchStrength;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.journal.dto.DiaryImportResponse;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.entity.Diary;
+import com.journal.exception.BadRequestException;
+import com.journal.repository.DiaryJdbcRepository;
+import com.journal.repository.DiaryRepository;
+import com.journal.repository.DiarySearchJdbcRepository;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 导入 /diaries/export 导出的备份（JSON / CBOR / Smile，可 gzip 压缩）
+ * 使用流式解析逐条读取，内存占用只与批大小有关；按 (diaryDate, createdAt, 内容摘要) 去重，
+ * 每批一个事务通过 JDBC 批量插入，已提交的批次对后续批次的去重查询可见。
+ */
+@Service
+@Slf4j
+public class DiaryImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+
+    private final DiaryRepository diaryRepository;
+    private final DiaryJdbcRepository diaryJdbcRepository;
+    private final DiarySearchJdbcRepository diarySearchRepository;
+    private final DiaryCache diaryCache;
+    private final DiaryStatsService diaryStatsService;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Counter importedCounter;
+    private final Counter duplicateCounter;
+    private final Counter invalidCounter;
+    private final Timer importTimer;
+
+    @Value("${diary.import.chunk-size:500}")
+    private int chunkSize;
+
+    public DiaryImportService(DiaryRepository diaryRepository,
+                              DiaryJdbcRepository diaryJdbcRepository,
+                              DiarySearchJdbcRepository diarySearchRepository,
+                              DiaryCache diaryCache,
+                              DiaryStatsService diaryStatsService,
+                              TransactionTemplate transactionTemplate,
+                              Validator validator,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.diaryRepository = diaryRepository;
+        this.diaryJdbcRepository = diaryJdbcRepository;
+        this.diarySearchRepository = diarySearchRepository;
+        this.diaryCache = diaryCache;
+        this.diaryStatsService = diaryStatsService;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.importedCounter = meterRegistry.counter("diary.import.entries", "result", "imported");
+        this.duplicateCounter = meterRegistry.counter("diary.import.entries", "result", "duplicate");
+        this.invalidCounter = meterRegistry.counter("diary.import.entries", "result", "invalid");
+        this.importTimer = meterRegistry.timer("diary.import.duration");
+    }
+
+    public DiaryImportResponse importDiaries(InputStream in) throws IOException {
+        return importDiaries(SecurityUtils.getCurrentUserId(), in);
+    }
+
+    public DiaryImportResponse importDiaries(Long userId, InputStream in) throws IOException {
+        ImportProgress progress = new ImportProgress(userId);
+        List<Diary> pending = new ArrayList<>(chunkSize);
+
+        try {
+            try (JsonParser parser = createParser(decompressIfNeeded(in))) {
+                if (parser == null || parser.nextToken() != JsonToken.START_ARRAY) {
+                    throw new BadRequestException("导入文件须为导出格式的 JSON 数组");
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    // Smile / CBOR 解析器没有绑定 ObjectMapper，统一由 objectMapper 读取
+                    JsonNode node = objectMapper.readTree(parser);
+                    progress.total++;
+                    Diary diary = toDiary(userId, node, progress);
+                    if (diary != null) {
+                        pending.add(diary);
+                    }
+                    if (pending.size() >= chunkSize) {
+                        writeChunk(userId, pending, progress);
+                        pending.clear();
+                    }
+                }
+                progress.completed = true;
+            } catch (JsonProcessingException e) {
+                progress.error("第 " + (progress.total + 1) + " 条附近 JSON 格式错误: " + e.getOriginalMessage());
+            }
+            // 只在读完或 JSON 格式错误时写入剩余记录；读流失败、数据库异常等直接抛出，不再写入
+            if (!pending.isEmpty()) {
+                writeChunk(userId, pending, progress);
+            }
+        } finally {
+            // 之前的批次可能已提交
+            if (progress.imported > 0) {
+                diaryCache.evict(userId, null);
+            }
+        }
+
+        long elapsedNanos = progress.elapsedNanos();
+        importTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        log.info("Import finished for user {}: total={}, imported={}, duplicates={}, invalid={}, {} entries/s",
+                userId, progress.total, progress.imported, progress.duplicates, progress.invalid,
+                String.format("%.1f", progress.entriesPerSecond()));
+
+        return new DiaryImportResponse(progress.completed, progress.total, progress.imported,
+                progress.duplicates, progress.invalid, progress.errors,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), progress.entriesPerSecond());
+    }
+
+    private Diary toDiary(Long userId, JsonNode node, ImportProgress progress) {
+        DiaryResponse record;
+        try {
+            record = objectMapper.treeToValue(node, DiaryResponse.class);
+        } catch (JsonProcessingException e) {
+            progress.invalid("第 " + progress.total + " 条: 字段格式错误");
+            return null;
+        }
+
+        DiaryRequest request = new DiaryRequest();
+        request.setTitle(record.getTitle());
+        request.setContent(record.getContent());
+        request.setMood(record.getMood());
+        request.setWeather(record.getWeather());
+        request.setDiaryDate(record.getDiaryDate());
+        Set<ConstraintViolation<DiaryRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            ConstraintViolation<DiaryRequest> violation = violations.iterator().next();
+            progress.invalid("第 " + progress.total + " 条: " + violation.getPropertyPath() + ": " + violation.getMessage());
+            return null;
+        }
+
+        Diary diary = new Diary();
+        diary.setUserId(userId);
+        diary.setTitle(request.getTitle());
+        diary.setContent(request.getContent());
+        diary.setMood(request.getMood());
+        diary.setWeather(request.getWeather());
+        diary.setCreatedAt(record.getCreatedAt());
+        if (request.getDiaryDate() != null) {
+            diary.setDiaryDate(request.getDiaryDate());
+        } else {
+            // 取创建日期而非当天，保证重复导入同一文件时去重键一致
+            diary.setDiaryDate(record.getCreatedAt() != null ? record.getCreatedAt().toLocalDate() : LocalDate.now());
+        }
+        return diary;
+    }
+
+    private void writeChunk(Long userId, List<Diary> chunk, ImportProgress progress) {
+        List<LocalDateTime> createdAts = chunk.stream()
+                .map(Diary::getCreatedAt)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+
+        Integer inserted = transactionTemplate.execute(status -> {
+            Set<ImportKey> seen = createdAts.isEmpty()
+                    ? new HashSet<>()
+                    : diaryRepository.findByUserIdAndCreatedAtIn(userId, createdAts).stream()
+                            .map(DiaryImportService::keyOf)
+                            .collect(Collectors.toCollection(HashSet::new));
+            List<Diary> fresh = new ArrayList<>(chunk.size());
+            for (Diary diary : chunk) {
+                if (diary.getCreatedAt() == null || seen.add(keyOf(diary))) {
+                    fresh.add(diary);
+                }
+            }
+            diaryJdbcRepository.batchInsert(fresh);
+            diarySearchRepository.upsert(fresh);
+            DiaryStatDeltas deltas = new DiaryStatDeltas(userId);
+            fresh.forEach(deltas::add);
+            diaryStatsService.apply(deltas);
+            return fresh.size();
+        });
+
+        int imported = inserted != null ? inserted : 0;
+        progress.imported += imported;
+        progress.duplicates += chunk.size() - imported;
+        importedCounter.increment(imported);
+        duplicateCounter.increment(chunk.size() - imported);
+        log.info("Import progress for user {}: {} read, {} imported, {} entries/s",
+                userId, progress.total, progress.imported, String.format("%.1f", progress.entriesPerSecond()));
+    }
+
+    /**
+     * 按文件头识别 JSON、Smile（":)\n" 头）与 CBOR（自描述标签），无法识别时返回 null
+     * Smile 对 CBOR 标签也会给出 SOLID_MATCH，须比较完所有格式再取最强的匹配。
+     */
+    private JsonParser createParser(InputStream in) throws IOException {
+        DataFormatDetector detector = new DataFormatDetector(objectMapper.getFactory(), SMILE_FACTORY, CBOR_FACTORY)
+                .withOptimalMatch(MatchStrength.FULL_MATCH);
+        return detector.findFormat(in).createParserWithMatch();
+    }
+
+    private static InputStream decompressIfNeeded(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        boolean gzip = first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >> 8);
+        return gzip ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    private static ImportKey keyOf(Diary diary) {
+        return new ImportKey(diary.getDiaryDate(), diary.getCreatedAt(), digest(diary.getContent()));
+    }
+
+    private static String digest(String content) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record ImportKey(LocalDate diaryDate, LocalDateTime createdAt, String contentDigest) {
+    }
+
+    private class ImportProgress {
+
+        private final long startNanos = System.nanoTime();
+        private final List<String> errors = new ArrayList<>();
+        private final Long userId;
+        private boolean completed;
+        private long total;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+
+        ImportProgress(Long userId) {
+            this.userId = userId;
+        }
+
+        void invalid(String message) {
+            invalid++;
+            invalidCounter.increment();
+            error(message);
+        }
+
+        void error(String message) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(message);
+            }
+            log.debug("Import error for user {}: {}", userId, message);
+        }
+
+        long elapsedNanos() {
+            return System.nanoTime() - startNanos;
+        }
+
+        double entriesPerSecond() {
+            long elapsed = elapsedNanos();
+            return elapsed > 0 ? total * 1_000_000_000.0 / elapsed : 0;
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.journal.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.journal.dto.DiaryJobResponse;
+import com.journal.entity.DiaryJob;
+import com.journal.exception.ApiException;
+import com.journal.exception.BadRequestException;
+import com.journal.exception.ConflictException;
+import com.journal.exception.NotFoundException;
+import com.journal.exception.RateLimitExceededException;
+import com.journal.repository.DiaryJobRepository;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 后台任务的提交、调度与查询
+ * 提交只写入任务表并立即返回；有空闲工作线程时以条件更新认领 QUEUED 任务执行，
+ * 此外每隔 poll-millis 检查一次队列，兜底提交时线程已满或其他实例写入的任务。
+ * 启动时把上次运行中断的 RUNNING 任务重新排队，假定同一任务表只有一个实例在执行任务。
+ */
+@Service
+@Slf4j
+public class DiaryJobService {
+
+    private static final List<DiaryJob.Status> ACTIVE = List.of(DiaryJob.Status.QUEUED, DiaryJob.Status.RUNNING);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final long RETRY_AFTER_SECONDS = 10;
+    private static final int UPLOAD_BUFFER_SIZE = 64 * 1024;
+
+    private final DiaryJobRepository diaryJobRepository;
+    private final DiaryJobWorker diaryJobWorker;
+    private final DiaryExportWriter diaryExportWriter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService jobExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore slots;
+    private final int workers;
+
+    /** 恢复完成前不认领任务，避免把本次启动后认领的任务当作中断任务重新排队 */
+    private volatile boolean recovered;
+
+    @Value("${diary.jobs.directory:${java.io.tmpdir}/journal-jobs}")
+    private Path directory;
+
+    @Value("${diary.jobs.max-active-per-user:2}")
+    private int maxActivePerUser;
+
+    @Value("${diary.jobs.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${diary.jobs.max-upload-bytes:104857600}")
+    private long maxUploadBytes;
+
+    @Value("${diary.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    public DiaryJobService(DiaryJobRepository diaryJobRepository,
+                           DiaryJobWorker diaryJobWorker,
+                           DiaryExportWriter diaryExportWriter,
+                           ObjectMapper objectMapper,
+                           TransactionTemplate transactionTemplate,
+                           @Qualifier("jobExecutor") ExecutorService jobExecutor,
+                           @Value("${diary.jobs.workers:2}") int workers,
+                           MeterRegistry meterRegistry) {
+        this.diaryJobRepository = diaryJobRepository;
+        this.diaryJobWorker = diaryJobWorker;
+        this.diaryExportWriter = diaryExportWriter;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.jobExecutor = jobExecutor;
+        this.meterRegistry = meterRegistry;
+        this.workers = workers;
+        this.slots = new Semaphore(workers);
+    }
+
+    public DiaryJobResponse submitExport(String format, boolean gzip) {
+        DiaryJob job = newJob(DiaryJob.Type.EXPORT);
+        job.setFormat(diaryExportWriter.resolve(format, null).name());
+        job.setGzip(gzip);
+        return enqueue(job, null);
+    }
+
+    /**
+     * 请求体先写入本地文件再排队，请求线程不等待导入执行
+     */
+    public DiaryJobResponse submitImport(InputStream body) throws IOException {
+        DiaryJob job = newJob(DiaryJob.Type.IMPORT);
+        checkActiveLimit(job.getUserId());
+        Path upload = directory.resolve("upload-" + UUID.randomUUID() + ".part");
+        try {
+            receive(body, upload);
+            return enqueue(job, upload);
+        } finally {
+            Files.deleteIfExists(upload);
+        }
+    }
+
+    public DiaryJobResponse submitReindex() {
+        return enqueue(newJob(DiaryJob.Type.REINDEX), null);
+    }
+
+    public DiaryJobResponse get(Long id) {
+        return toResponse(findOwned(id));
+    }
+
+    public List<DiaryJobResponse> list() {
+        return diaryJobRepository.findTop20ByUserIdOrderByIdDesc(SecurityUtils.getCurrentUserId()).stream()
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /**
+     * 已完成导出任务的文件
+     */
+    public JobFile openFile(Long id) {
+        DiaryJob job = findOwned(id);
+        if (job.getType() != DiaryJob.Type.EXPORT) {
+            throw new NotFoundException("该任务没有可下载的文件");
+        }
+        if (job.getStatus() != DiaryJob.Status.SUCCEEDED) {
+            throw new ConflictException("导出尚未完成");
+        }
+        Path path = fileOf(job);
+        if (!Files.exists(path)) {
+            throw new NotFoundException("导出文件已过期");
+        }
+        DiaryExportWriter.ExportFormat format = diaryExportWriter.resolve(job.getFormat(), null);
+        return new JobFile(path, DiaryExportWriter.fileName(format, job.isGzip()), job.getFileSize());
+    }
+
+    public void delete(Long id) {
+        DiaryJob job = findOwned(id);
+        if (ACTIVE.contains(job.getStatus())) {
+            throw new ConflictException("任务尚未结束，无法删除");
+        }
+        deleteFiles(job.getId());
+        diaryJobRepository.delete(job);
+    }
+
+    /**
+     * 服务重启后恢复中断的任务
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() throws IOException {
+        Files.createDirectories(directory);
+        // 中断的上传与写了一半的导出文件
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory, "*.part")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+        Integer requeued = transactionTemplate.execute(status -> diaryJobRepository.requeue(
+                DiaryJob.Status.RUNNING, DiaryJob.Status.QUEUED, maxAttempts));
+        Integer failed = transactionTemplate.execute(status -> diaryJobRepository.fail(
+                DiaryJob.Status.RUNNING, DiaryJob.Status.FAILED, "任务多次中断，已停止重试", LocalDateTime.now()));
+        if (requeued != null && requeued > 0 || failed != null && failed > 0) {
+            log.info("Recovered interrupted jobs: {} requeued, {} failed", requeued, failed);
+        }
+        recovered = true;
+        dispatch();
+    }
+
+    /**
+     * 按空闲线程数认领排队的任务并提交到任务线程池
+     */
+    @Scheduled(fixedDelayString = "${diary.jobs.poll-millis:5000}")
+    public void dispatch() {
+        if (!recovered) {
+            return;
+        }
+        while (slots.tryAcquire()) {
+            Long jobId = claimNext();
+            if (jobId == null) {
+                slots.release();
+                return;
+            }
+            try {
+                jobExecutor.execute(() -> run(jobId));
+            } catch (RejectedExecutionException e) {
+                // 停机中：任务保持 RUNNING，下次启动时重新排队
+                slots.release();
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${diary.jobs.purge-cron:0 15 * * * *}")
+    public void purgeFinished() {
+        List<Long> ids = diaryJobRepository.findIdsFinishedBefore(LocalDateTime.now().minusHours(retentionHours));
+        for (Long id : ids) {
+            deleteFiles(id);
+        }
+        diaryJobRepository.deleteAllByIdInBatch(ids);
+        if (!ids.isEmpty()) {
+            log.info("Purged {} finished jobs", ids.size());
+        }
+    }
+
+    private DiaryJob newJob(DiaryJob.Type type) {
+        DiaryJob job = new DiaryJob();
+        job.setUserId(SecurityUtils.getCurrentUserId());
+        job.setType(type);
+        job.setStatus(DiaryJob.Status.QUEUED);
+        return job;
+    }
+
+    /**
+     * 写入任务；导入任务的上传文件在同一事务内改名为任务文件，提交前任务不可见，不会被提前认领
+     */
+    private DiaryJobResponse enqueue(DiaryJob job, Path upload) {
+        DiaryJob saved = transactionTemplate.execute(status -> {
+            // 计数与写入之间没有加锁，并发提交时可能略超上限
+            checkActiveLimit(job.getUserId());
+            DiaryJob inserted = diaryJobRepository.save(job);
+            if (upload != null) {
+                try {
+                    Files.move(upload, fileOf(inserted), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return inserted;
+        });
+        dispatch();
+        return toResponse(saved);
+    }
+
+    private void checkActiveLimit(Long userId) {
+        if (diaryJobRepository.countByUserIdAndStatusIn(userId, ACTIVE) >= maxActivePerUser) {
+            throw new RateLimitExceededException("已有 " + maxActivePerUser + " 个任务在处理，请等待完成后再提交",
+                    RETRY_AFTER_SECONDS);
+        }
+    }
+
+    /**
+     * 请求体经 FileChannel 写入本地文件，超过 max-upload-bytes 时中止
+     */
+    private void receive(InputStream body, Path target) throws IOException {
+        try (ReadableByteChannel source = Channels.newChannel(body);
+             FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(UPLOAD_BUFFER_SIZE);
+            long written = 0;
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                written += buffer.remaining();
+                if (written > maxUploadBytes) {
+                    throw new BadRequestException("导入文件不能超过 " + maxUploadBytes / (1024 * 1024) + " MB");
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            channel.force(false);
+        }
+    }
+
+    private Long claimNext() {
+        List<Long> queued = diaryJobRepository.findIdsByStatus(DiaryJob.Status.QUEUED, PageRequest.of(0, workers));
+        for (Long id : queued) {
+            Integer claimed = transactionTemplate.execute(status -> diaryJobRepository.claim(
+                    id, DiaryJob.Status.QUEUED, DiaryJob.Status.RUNNING, LocalDateTime.now()));
+            if (claimed != null && claimed == 1) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private void run(Long jobId) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        DiaryJob job = null;
+        try {
+            job = diaryJobRepository.findById(jobId).orElseThrow();
+            execute(job);
+            job.setStatus(DiaryJob.Status.SUCCEEDED);
+        } catch (Exception e) {
+            log.warn("Job {} failed", jobId, e);
+            if (job != null) {
+                String message = e instanceof ApiException ? e.getMessage() : "任务执行失败";
+                job.setStatus(DiaryJob.Status.FAILED);
+                job.setError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            }
+        } finally {
+            try {
+                if (job != null) {
+                    job.setFinishedAt(LocalDateTime.now());
+                    diaryJobRepository.save(job);
+                    sample.stop(meterRegistry.timer("diary.job.duration",
+                            "type", job.getType().name().toLowerCase(),
+                            "outcome", job.getStatus().name().toLowerCase()));
+                }
+            } catch (RuntimeException e) {
+                // 任务仍为 RUNNING，服务重启时按中断的任务重新排队
+                log.warn("Failed to record result of job {}", jobId, e);
+            } finally {
+                // 无论结果能否保存都归还名额，否则工作线程名额耗尽后不再认领任何任务
+                slots.release();
+            }
+        }
+        dispatch();
+    }
+
+    private void execute(DiaryJob job) throws IOException {
+        switch (job.getType()) {
+            case EXPORT -> job.setFileSize(diaryJobWorker.export(job, fileOf(job)));
+            case IMPORT -> {
+                Path upload = fileOf(job);
+                job.setResult(objectMapper.writeValueAsString(diaryJobWorker.importFile(job, upload)));
+                Files.deleteIfExists(upload);
+            }
+            case REINDEX -> job.setResult(objectMapper.createObjectNode()
+                    .put("indexed", diaryJobWorker.reindex(job))
+                    .toString());
+        }
+    }
+
+    private DiaryJob findOwned(Long id) {
+        return diaryJobRepository.findByIdAndUserId(id, SecurityUtils.getCurrentUserId())
+                .orElseThrow(() -> new NotFoundException("任务不存在"));
+    }
+
+    /**
+     * 导出任务的结果文件或导入任务的上传文件
+     */
+    private Path fileOf(DiaryJob job) {
+        return directory.resolve(job.getId() + (job.getType() == DiaryJob.Type.IMPORT ? ".upload" : ".export"));
+    }
+
+    private void deleteFiles(Long jobId) {
+        try {
+            Files.deleteIfExists(directory.resolve(jobId + ".export"));
+            Files.deleteIfExists(directory.resolve(jobId + ".upload"));
+        } catch (IOException e) {
+            log.warn("Failed to delete files of job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private DiaryJobResponse toResponse(DiaryJob job) {
+        return new DiaryJobResponse(job.getId(), job.getType(), job.getStatus(), job.getFormat(), job.isGzip(),
+                job.getFileSize(), parseResult(job.getResult()), job.getError(), job.getAttempts(),
+                job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt());
+    }
+
+    private JsonNode parseResult(String result) {
+        if (result == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(result);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    public record JobFile(Path path, String fileName, Long size) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryImportResponse;
+import com.journal.entity.Diary;
+import com.journal.entity.DiaryJob;
+import com.journal.repository.DiaryRepository;
+import com.journal.repository.DiarySearchJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 后台任务的执行体，在任务线程上运行，用户取自任务记录而非 SecurityContext
+ */
+@Component
+@RequiredArgsConstructor
+public class DiaryJobWorker {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final DiaryExportWriter diaryExportWriter;
+    private final DiaryImportService diaryImportService;
+    private final DiaryRepository diaryRepository;
+    private final DiarySearchJdbcRepository diarySearchRepository;
+    private final DiaryCache diaryCache;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${diary.jobs.reindex-chunk-size:500}")
+    private int reindexChunkSize;
+
+    /**
+     * 导出到临时文件，落盘后原子改名为 target，下载接口不会读到写了一半的文件；返回文件大小
+     */
+    public long export(DiaryJob job, Path target) throws IOException {
+        DiaryExportWriter.ExportFormat format = diaryExportWriter.resolve(job.getFormat(), null);
+        Path part = target.resolveSibling(target.getFileName() + ".part");
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_SIZE);
+            if (job.isGzip()) {
+                out = new GZIPOutputStream(out, WRITE_BUFFER_SIZE);
+            }
+            diaryExportWriter.write(job.getUserId(), out, format, false);
+            out.flush();
+            channel.force(false);
+        }
+        Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+
+    /**
+     * 导入已上传的文件；中断后重新执行时已导入的日记按去重规则跳过
+     */
+    public DiaryImportResponse importFile(DiaryJob job, Path upload) throws IOException {
+        try (InputStream in = Files.newInputStream(upload)) {
+            return diaryImportService.importDiaries(job.getUserId(), in);
+        }
+    }
+
+    /**
+     * 按主键顺序分批重写用户全部日记的搜索副本，并删除已删除或不存在的日记留下的副本；返回处理的日记数
+     */
+    public long reindex(DiaryJob job) {
+        Long userId = job.getUserId();
+        long afterId = 0;
+        long indexed = 0;
+        while (true) {
+            long from = afterId;
+            List<Diary> chunk = transactionTemplate.execute(status -> {
+                List<Diary> diaries = diaryRepository.findByUserIdAndDeletedFalseAndIdGreaterThanOrderByIdAsc(
+                        userId, from, PageRequest.of(0, reindexChunkSize));
+                diarySearchRepository.upsert(diaries);
+                return diaries;
+            });
+            indexed += chunk.size();
+            if (chunk.size() < reindexChunkSize) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        diarySearchRepository.deleteOrphansByUserId(userId);
+        diaryCache.evict(userId, null);
+        return indexed;
+    }
+}
@@ -0,0 +1,45 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySummaryResponse;
+import com.journal.entity.Diary;
+import com.journal.repository.DiarySummaryView;
+
+/**
+ * 日记实体 / 投影到响应 DTO 的转换
+ */
+public final class DiaryMapper {
+
+    private DiaryMapper() {
+    }
+
+    public static DiaryResponse toResponse(Diary diary) {
+        return new DiaryResponse(
+                diary.getId(),
+                diary.getTitle(),
+                diary.getContent(),
+                diary.getMood(),
+                diary.getWeather(),
+                diary.getDiaryDate(),
+                diary.getCreatedAt(),
+                diary.getUpdatedAt(),
+                diary.getVersion(),
+                null
+        );
+    }
+
+    public static DiarySummaryResponse toSummaryResponse(DiarySummaryView view) {
+        return new DiarySummaryResponse(
+                view.getId(),
+                view.getTitle(),
+                view.getPreview(),
+                view.getWordCount(),
+                view.getMood(),
+                view.getWeather(),
+                view.getDiaryDate(),
+                view.getCreatedAt(),
+                view.getUpdatedAt(),
+                view.getVersion()
+        );
+    }
+}
@@ -0,0 +1,119 @@
+package com.journal.service;
+
+import com.journal.util.ContentCodec;
+import com.journal.util.DiaryTextUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 历史日记的列表摘要回填：为 preview 为空的日记计算 preview / word_count。
+ * 由 DiaryTextUtils 计算，与实体写入时的 @PrePersist 结果一致（SQL 无法表达其分词规则）。
+ * 按主键顺序分批处理，每批一个事务，可随时中断，重启后只处理 preview 仍为空的行。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiaryPreviewBackfill {
+
+    /** 墓碑的摘要为空且不再展示，跳过 */
+    private static final String SELECT_SQL =
+            "SELECT id, content FROM diary WHERE id > ? AND preview IS NULL AND deleted = FALSE ORDER BY id LIMIT ?";
+
+    /** 读取后被接口修改的日记已由写入路径填好摘要，条件 preview IS NULL 使回填跳过这些行 */
+    private static final String UPDATE_SQL =
+            "UPDATE diary SET preview = ?, word_count = ? WHERE id = ? AND preview IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${diary.preview.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${diary.preview.backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${diary.preview.backfill.pause-millis:100}")
+    private long pauseMillis;
+
+    private volatile boolean stopped;
+    private Thread worker;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            worker = Thread.ofPlatform().name("diary-preview-backfill").daemon().start(this::run);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        try {
+            long backfilled = backfill(pauseMillis);
+            if (backfilled > 0) {
+                log.info("Diary preview backfill finished: {} entries", backfilled);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Diary preview backfill stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 同步回填全部历史日记，返回处理的行数；批次之间暂停 pauseMillis，避免与在线请求争抢
+     */
+    long backfill(long pauseMillis) throws InterruptedException {
+        long lastId = 0;
+        long backfilled = 0;
+        while (!stopped) {
+            long afterId = lastId;
+            ChunkResult chunk = transactionTemplate.execute(status -> backfillChunk(afterId));
+            if (chunk == null || chunk.rows() == 0) {
+                break;
+            }
+            lastId = chunk.lastId();
+            backfilled += chunk.rows();
+            if (chunk.rows() < chunkSize) {
+                break;
+            }
+            if (pauseMillis > 0) {
+                Thread.sleep(pauseMillis);
+            }
+        }
+        return backfilled;
+    }
+
+    private ChunkResult backfillChunk(long afterId) {
+        List<Object[]> updates = new ArrayList<>(chunkSize);
+        long[] lastId = {afterId};
+        jdbcTemplate.query(SELECT_SQL, rs -> {
+            String content = ContentCodec.decode(rs.getBytes("content"));
+            lastId[0] = rs.getLong("id");
+            updates.add(new Object[]{DiaryTextUtils.preview(content), DiaryTextUtils.wordCount(content), lastId[0]});
+        }, afterId, chunkSize);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        return new ChunkResult(lastId[0], updates.size());
+    }
+
+    private record ChunkResult(long lastId, int rows) {
+    }
+}
@@ -1,36 +1,83 @@
 package com.journal.service;
 
+import com.journal.dto.DiaryCalendar;
+import com.journal.dto.DiaryCursor;
 import com.journal.dto.DiaryRequest;
 import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySlice;
+import com.journal.dto.DiarySummaryResponse;
 import com.journal.entity.Diary;
+import com.journal.exception.BadRequestException;
+import com.journal.exception.ConflictException;
+import com.journal.exception.ForbiddenException;
+import com.journal.exception.NotFoundException;
+import com.journal.repository.DiaryDayView;
 import com.journal.repository.DiaryRepository;
+import com.journal.repository.DiaryStatView;
+import com.journal.repository.DiarySearchJdbcRepository;
+import com.journal.repository.DiarySummaryView;
+import com.journal.util.DiaryTextUtils;
+import com.journal.util.SecurityUtils;
+import com.journal.util.SnippetHighlighter;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed("diary.service")
 public class DiaryService {
 
+    private static final String SEARCH_MODE_FULLTEXT = "fulltext";
+    private static final Pattern BOOLEAN_OPERATORS = Pattern.compile("[+\\-<>()~*\"@]");
+    private static final int SNIPPET_CONTEXT_CHARS = 40;
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final String EXPORT_QUERY =
+            "SELECT d FROM Diary d WHERE d.userId = :userId ORDER BY d.diaryDate DESC, d.createdAt DESC";
+
     private final DiaryRepository diaryRepository;
+    private final DiarySearchJdbcRepository diarySearchRepository;
+    private final EntityManager entityManager;
+    private final DiaryCache diaryCache;
+    private final MeterRegistry meterRegistry;
+    private final DiaryStatsService diaryStatsService;
+
+    @Value("${diary.search.mode:fulltext}")
+    private String searchMode;
+
+    @Value("${diary.search.ngram-token-size:2}")
+    private int ngramTokenSize;
+
+    @Value("${diary.export.fetch-size:-2147483648}")
+    private int exportFetchSize;
 
     private Long getCurrentUserId() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof Long) {
-            return (Long) authentication.getPrincipal();
-        }
-        throw new RuntimeException("未登录或登录已过期");
+        return SecurityUtils.getCurrentUserId();
     }
 
     public DiaryResponse create(DiaryRequest request) {
@@ -43,88 +90,291 @@ public class DiaryService {
         diary.setWeather(request.getWeather());
         diary.setDiaryDate(request.getDiaryDate() != null ? request.getDiaryDate() : LocalDate.now());
         diary = diaryRepository.save(diary);
-        return toResponse(diary);
+        diarySearchRepository.upsert(List.of(diary));
+        diaryStatsService.apply(new DiaryStatDeltas(userId).add(diary));
+        diaryCache.evict(userId, null);
+        return DiaryMapper.toResponse(diary);
     }
 
+    /**
+     * 先以 SELECT ... FOR UPDATE 锁定该行并读取统计字段，再以单条 UPDATE 完成版本校验与修改。
+     * 这次加锁读取是有意保留的：统计增量要扣除被覆盖的心情、天气、日期与字数，必须读到并锁住旧值，
+     * 否则并发修改会按过期的旧值扣减；它同时完成归属校验，UPDATE 失败时无需再查询区分原因。
+     * 响应由请求、锁定时读到的日期与版本号及写入的 updatedAt 组成，不再回查，createdAt 为空。
+     */
     public DiaryResponse update(Long id, DiaryRequest request) {
         Long userId = getCurrentUserId();
-        Diary diary = diaryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("日记不存在"));
-
-        if (!diary.getUserId().equals(userId)) {
-            throw new RuntimeException("无权修改此日记");
+        DiaryStatView before = diaryRepository.lockStatFieldsByIdAndUserId(id, userId)
+                .orElseThrow(() -> new NotFoundException("日记不存在"));
+        LocalDate diaryDate = request.getDiaryDate() != null ? request.getDiaryDate() : before.getDiaryDate();
+        LocalDateTime updatedAt = LocalDateTime.now();
+        int updated = diaryRepository.updateByIdAndUserId(id, userId, request.getVersion(),
+                request.getTitle(), request.getContent(),
+                DiaryTextUtils.preview(request.getContent()), DiaryTextUtils.wordCount(request.getContent()),
+                request.getMood(), request.getWeather(),
+                request.getDiaryDate(), updatedAt);
+        if (updated == 0) {
+            // 行已锁定且归属正确，未更新只可能是版本不一致
+            throw new ConflictException("日记已在其他设备上修改，请刷新后重试");
         }
+        diaryStatsService.apply(new DiaryStatDeltas(userId)
+                .remove(before)
+                .add(request.getMood(), request.getWeather(), diaryDate,
+                        DiaryTextUtils.wordCount(request.getContent())));
+        diarySearchRepository.upsert(id, userId, request.getTitle(), request.getContent());
+        diaryCache.evict(userId, id);
 
-        diary.setTitle(request.getTitle());
-        diary.setContent(request.getContent());
-        diary.setMood(request.getMood());
-        diary.setWeather(request.getWeather());
-        if (request.getDiaryDate() != null) {
-            diary.setDiaryDate(request.getDiaryDate());
-        }
-        diary = diaryRepository.save(diary);
-        return toResponse(diary);
+        return new DiaryResponse(
+                id,
+                request.getTitle(),
+                request.getContent(),
+                request.getMood(),
+                request.getWeather(),
+                diaryDate,
+                null,
+                updatedAt,
+                before.getVersion() + 1,
+                null
+        );
     }
 
+    /**
+     * 与 update 相同，先加锁读取统计字段再软删除：读取是有意保留的，统计需要按删除前的值扣减，
+     * 同时完成归属校验
+     */
     public void delete(Long id) {
         Long userId = getCurrentUserId();
-        Diary diary = diaryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("日记不存在"));
+        DiaryStatView before = diaryRepository.lockStatFieldsByIdAndUserId(id, userId)
+                .orElseThrow(() -> new NotFoundException("日记不存在"));
+        diaryRepository.softDeleteByIdAndUserId(id, userId, LocalDateTime.now());
+        diarySearchRepository.deleteByDiaryIds(List.of(id));
+        diaryStatsService.apply(new DiaryStatDeltas(userId).remove(before));
+        diaryCache.evict(userId, id);
+    }
+
+    /**
+     * 读缓存命中时不开启事务、不占用数据库连接
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CachedResult<DiaryResponse> getById(Long id) {
+        Long userId = getCurrentUserId();
+        DiaryCache.CachedEntry entry = diaryCache.getEntry(id, key -> diaryRepository.findById(key)
+                .map(diary -> DiaryCache.entryOf(diary.getUserId(), DiaryMapper.toResponse(diary)))
+                .orElse(null));
+        if (entry == null) {
+            throw new NotFoundException("日记不存在");
+        }
 
-        if (!diary.getUserId().equals(userId)) {
-            throw new RuntimeException("无权删除此日记");
+        if (!entry.userId().equals(userId)) {
+            throw new ForbiddenException("无权查看此日记");
         }
 
-        diaryRepository.deleteById(id);
+        return entry.result();
     }
 
-    @Transactional(readOnly = true)
-    public DiaryResponse getById(Long id) {
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CachedResult<Page<DiaryResponse>> getList(int page, int size) {
         Long userId = getCurrentUserId();
-        Diary diary = diaryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("日记不存在"));
+        return diaryCache.getPage(userId, "page:" + page + ":" + size, () -> {
+            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "diaryDate", "createdAt"));
+            Page<Diary> result = diaryRepository.findByUserIdOrderByDiaryDateDescCreatedAtDesc(userId, pageable);
+            recordRows("list", result.getNumberOfElements());
+            return result.map(DiaryMapper::toResponse);
+        }, result -> DiaryCache.etagOf(result.getContent(), result.getTotalElements()));
+    }
 
-        if (!diary.getUserId().equals(userId)) {
-            throw new RuntimeException("无权查看此日记");
+    /**
+     * 列表摘要：只返回标题、摘要、字数等元数据，正文通过 getById 获取
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CachedResult<Page<DiarySummaryResponse>> getSummaries(int page, int size) {
+        Long userId = getCurrentUserId();
+        return diaryCache.getPage(userId, "summary:" + page + ":" + size, () -> {
+            Pageable pageable = PageRequest.of(page, size);
+            Page<DiarySummaryView> result = diaryRepository.findSummariesByUserId(userId, pageable);
+            recordRows("summaries", result.getNumberOfElements());
+            return result.map(DiaryMapper::toSummaryResponse);
+        }, result -> DiaryCache.etagOf(result.getContent(), DiarySummaryResponse::getId,
+                DiarySummaryResponse::getUpdatedAt, DiarySummaryResponse::getVersion, result.getTotalElements()));
+    }
+
+    /**
+     * 日期范围内的日记摘要，范围最长一年
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CachedResult<List<DiarySummaryResponse>> getRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("起始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("日期范围不能超过 " + MAX_RANGE_DAYS + " 天");
         }
+        Long userId = getCurrentUserId();
+        return diaryCache.getPage(userId, "range:" + from + ":" + to, () -> {
+            List<DiarySummaryResponse> result = diaryRepository.findSummariesByUserIdAndDiaryDateBetween(userId, from, to)
+                    .stream()
+                    .map(DiaryMapper::toSummaryResponse)
+                    .toList();
+            recordRows("range", result.size());
+            return result;
+        }, result -> DiaryCache.etagOf(result, DiarySummaryResponse::getId, DiarySummaryResponse::getUpdatedAt,
+                DiarySummaryResponse::getVersion, 0));
+    }
+
+    /**
+     * 月历：有日记的日期位图与每天的心情
+     * ETag 与 getRange 一样由当月日记的 id、更新时间与版本号计算
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CachedResult<DiaryCalendar> getCalendar(YearMonth month) {
+        Long userId = getCurrentUserId();
+        return diaryCache.getPage(userId, "calendar:" + month, () -> {
+            List<DiaryDayView> days = diaryRepository.findDaysByUserIdAndDiaryDateBetween(
+                    userId, month.atDay(1), month.atEndOfMonth());
+            recordRows("calendar", days.size());
+            return new CachedResult<>(toCalendar(month, days), DiaryCache.etagOf(days,
+                    DiaryDayView::getId, DiaryDayView::getUpdatedAt, DiaryDayView::getVersion, 0));
+        });
+    }
 
-        return toResponse(diary);
+    private static DiaryCalendar toCalendar(YearMonth month, List<DiaryDayView> days) {
+        int bitmap = 0;
+        String[] moods = new String[month.lengthOfMonth()];
+        for (DiaryDayView day : days) {
+            int index = day.getDiaryDate().getDayOfMonth() - 1;
+            bitmap |= 1 << index;
+            // 同一天按创建时间升序，最后一篇覆盖之前的心情（包括未填写心情）
+            moods[index] = day.getMood();
+        }
+        return new DiaryCalendar(month.toString(), bitmap, Arrays.asList(moods));
     }
 
-    @Transactional(readOnly = true)
-    public Page<DiaryResponse> getList(int page, int size) {
+    /**
+     * 游标分页：按 (diaryDate, createdAt, id) 定位，深翻页代价只与页大小有关，且不执行 COUNT 查询
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public CachedResult<DiarySlice> getSlice(String after, int size) {
         Long userId = getCurrentUserId();
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "diaryDate", "createdAt"));
-        return diaryRepository.findByUserIdOrderByDiaryDateDescCreatedAtDesc(userId, pageable)
-                .map(this::toResponse);
+        return diaryCache.getPage(userId, "after:" + after + ":" + size,
+                () -> loadSlice(userId, after, size),
+                result -> DiaryCache.etagOf(result.getContent(), result.isHasNext() ? 1 : 0));
+    }
+
+    private DiarySlice loadSlice(Long userId, String after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<Diary> slice;
+        if (after == null || after.isBlank()) {
+            slice = diaryRepository.findFirstSlice(userId, pageable);
+        } else {
+            DiaryCursor cursor = DiaryCursor.decode(after);
+            slice = cursor.diaryDate() != null
+                    ? diaryRepository.findSliceAfter(userId, cursor.diaryDate(), cursor.createdAt(), cursor.id(), pageable)
+                    : diaryRepository.findUndatedSliceAfter(userId, cursor.createdAt(), cursor.id(), pageable);
+        }
+
+        List<Diary> diaries = slice.getContent();
+        recordRows("slice", diaries.size());
+        String nextCursor = slice.hasNext() && !diaries.isEmpty()
+                ? DiaryCursor.of(diaries.get(diaries.size() - 1)).encode()
+                : null;
+        return new DiarySlice(diaries.stream().map(DiaryMapper::toResponse).toList(), nextCursor, nextCursor != null);
     }
 
     @Transactional(readOnly = true)
     public Page<DiaryResponse> search(String keyword, int page, int size) {
         Long userId = getCurrentUserId();
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "diaryDate", "createdAt"));
-        return diaryRepository.searchByKeywordAndUserId(keyword, userId, pageable)
-                .map(this::toResponse);
+        List<String> terms = splitTerms(keyword);
+        if (terms.isEmpty()) {
+            return Page.empty(PageRequest.of(page, size));
+        }
+
+        Page<Diary> result;
+        if (useFullText(terms)) {
+            result = diaryRepository.fullTextSearch(toBooleanQuery(terms), userId, PageRequest.of(page, size));
+        } else {
+            result = diaryRepository.searchByKeywordAndUserId(keyword.trim(), userId, PageRequest.of(page, size));
+        }
+        recordRows("search", result.getNumberOfElements());
+        return result.map(diary -> {
+            DiaryResponse response = DiaryMapper.toResponse(diary);
+            String highlight = SnippetHighlighter.highlight(diary.getContent(), terms, SNIPPET_CONTEXT_CHARS);
+            response.setHighlight(highlight != null
+                    ? highlight
+                    : SnippetHighlighter.highlight(diary.getTitle(), terms, SNIPPET_CONTEXT_CHARS));
+            return response;
+        });
+    }
+
+    /**
+     * 全文索引只能匹配长度不小于 ngram_token_size 的词，含短词时退回 LIKE 查询
+     */
+    private boolean useFullText(List<String> terms) {
+        if (!SEARCH_MODE_FULLTEXT.equalsIgnoreCase(searchMode)) {
+            return false;
+        }
+        return terms.stream().allMatch(term -> term.codePointCount(0, term.length()) >= ngramTokenSize);
     }
 
+    private static List<String> splitTerms(String keyword) {
+        if (keyword == null) {
+            return List.of();
+        }
+        String sanitized = BOOLEAN_OPERATORS.matcher(keyword).replaceAll(" ").trim();
+        if (sanitized.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(sanitized.split("\\s+"))
+                .distinct()
+                .toList();
+    }
+
+    private static String toBooleanQuery(List<String> terms) {
+        return terms.stream()
+                .map(term -> "+\"" + term + "\"")
+                .collect(Collectors.joining(" "));
+    }
+
+    /**
+     * 逐条导出当前用户的全部日记，每条写出后立即从持久化上下文中移除，堆占用与日记总数无关。
+     * fetch size 为 Integer.MIN_VALUE 时 MySQL 驱动逐行推送结果；H2 等不接受负值的数据库可通过
+     * diary.export.fetch-size 改为正数。
+     */
     @Transactional(readOnly = true)
-    public List<DiaryResponse> exportAll() {
-        Long userId = getCurrentUserId();
-        return diaryRepository.findByUserIdOrderByDiaryDateDescCreatedAtDesc(userId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    public void exportAll(Consumer<DiaryResponse> sink) {
+        exportAll(getCurrentUserId(), sink);
     }
 
-    private DiaryResponse toResponse(Diary diary) {
-        return new DiaryResponse(
-                diary.getId(),
-                diary.getTitle(),
-                diary.getContent(),
-                diary.getMood(),
-                diary.getWeather(),
-                diary.getDiaryDate(),
-                diary.getCreatedAt(),
-                diary.getUpdatedAt()
-        );
+    /**
+     * 导出指定用户的日记，供不在请求线程上执行的后台任务使用
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Long userId, Consumer<DiaryResponse> sink) {
+        try (Stream<Diary> diaries = entityManager.createQuery(EXPORT_QUERY, Diary.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, exportFetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_CACHEABLE, false)
+                .getResultStream()) {
+            Iterator<Diary> iterator = diaries.iterator();
+            long rows = 0;
+            while (iterator.hasNext()) {
+                Diary diary = iterator.next();
+                sink.accept(DiaryMapper.toResponse(diary));
+                entityManager.detach(diary);
+                rows++;
+            }
+            recordRows("export", rows);
+        }
+    }
+
+    /**
+     * 记录每次查询返回的行数，与 spring.data.repository.invocations 的耗时对照定位慢查询
+     */
+    private void recordRows(String query, long rows) {
+        DistributionSummary.builder("diary.query.rows")
+                .baseUnit("rows")
+                .tag("query", query)
+                .register(meterRegistry)
+                .record(rows);
     }
 }
@@ -0,0 +1,125 @@
+package com.journal.service;
+
+import com.journal.entity.Diary;
+import com.journal.entity.DiaryStat;
+import com.journal.repository.DiaryStatJdbcRepository;
+import com.journal.repository.DiaryStatView;
+import com.journal.util.DiaryTextUtils;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 一次写操作对某个用户统计的增量，按 (维度, 取值) 合并，由 DiaryStatsService 在同一事务内写入
+ */
+public class DiaryStatDeltas {
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::dimension).thenComparing(Key::bucket);
+
+    /**
+     * 统计版本递增一次。写入方把它放在每批增量的最前面，重建也最先写它：
+     * 该行是所有统计写入加锁的第一行，写入与重建由此按用户串行，且不会交叉等待
+     */
+    static final DiaryStatJdbcRepository.Delta NEXT_GENERATION =
+            new DiaryStatJdbcRepository.Delta(DiaryStat.META, DiaryStat.GENERATION, 1, 0);
+
+    private final Long userId;
+    private final Map<Key, long[]> deltas = new TreeMap<>(KEY_ORDER);
+
+    public DiaryStatDeltas(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * 计入日记的当前内容；实体修改后到 flush 前 wordCount 尚未重新派生，因此按正文计算
+     */
+    public DiaryStatDeltas add(Diary diary) {
+        return apply(1, diary.getMood(), diary.getWeather(), diary.getDiaryDate(),
+                DiaryTextUtils.wordCount(diary.getContent()));
+    }
+
+    /**
+     * 扣除日记已入库的值，须在修改实体之前调用
+     */
+    public DiaryStatDeltas remove(Diary diary) {
+        return apply(-1, diary.getMood(), diary.getWeather(), diary.getDiaryDate(),
+                diary.getWordCount() != null ? diary.getWordCount() : DiaryTextUtils.wordCount(diary.getContent()));
+    }
+
+    public DiaryStatDeltas add(DiaryStatView view) {
+        return apply(1, view.getMood(), view.getWeather(), view.getDiaryDate(), view.getWordCount());
+    }
+
+    public DiaryStatDeltas remove(DiaryStatView view) {
+        return apply(-1, view.getMood(), view.getWeather(), view.getDiaryDate(), view.getWordCount());
+    }
+
+    public DiaryStatDeltas add(String mood, String weather, LocalDate diaryDate, Integer words) {
+        return apply(1, mood, weather, diaryDate, words);
+    }
+
+    DiaryStatDeltas markBuilt() {
+        merge(DiaryStat.META, DiaryStat.BUILT, 1, 0);
+        return this;
+    }
+
+    private DiaryStatDeltas apply(int sign, String mood, String weather, LocalDate diaryDate, Integer words) {
+        long w = words != null ? sign * (long) words : 0;
+        merge(DiaryStat.TOTAL, "", sign, w);
+        if (mood != null && !mood.isBlank()) {
+            merge(DiaryStat.MOOD, mood, sign, w);
+        }
+        if (weather != null && !weather.isBlank()) {
+            merge(DiaryStat.WEATHER, weather, sign, w);
+        }
+        if (diaryDate != null) {
+            merge(DiaryStat.MONTH, diaryDate.format(MONTH_FORMAT), sign, w);
+            merge(DiaryStat.DAY, diaryDate.toString(), sign, w);
+        }
+        return this;
+    }
+
+    private void merge(String dimension, String bucket, long entries, long words) {
+        long[] delta = deltas.computeIfAbsent(new Key(dimension, bucket), k -> new long[2]);
+        delta[0] += entries;
+        delta[1] += words;
+    }
+
+    /**
+     * 去掉相互抵消的项（如修改时心情未变），按维度与取值排序；有实际变化时在最前面加上版本递增
+     */
+    List<DiaryStatJdbcRepository.Delta> toList() {
+        List<DiaryStatJdbcRepository.Delta> counts = counts();
+        if (counts.isEmpty()) {
+            return counts;
+        }
+        List<DiaryStatJdbcRepository.Delta> list = new ArrayList<>(counts.size() + 1);
+        list.add(NEXT_GENERATION);
+        list.addAll(counts);
+        return list;
+    }
+
+    /**
+     * 不含版本递增的增量，供已先行递增版本的重建使用
+     */
+    List<DiaryStatJdbcRepository.Delta> counts() {
+        return deltas.entrySet().stream()
+                .filter(e -> e.getValue()[0] != 0 || e.getValue()[1] != 0)
+                .map(e -> new DiaryStatJdbcRepository.Delta(e.getKey().dimension(), e.getKey().bucket(),
+                        e.getValue()[0], e.getValue()[1]))
+                .toList();
+    }
+
+    private record Key(String dimension, String bucket) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.journal.service;
+
+import com.journal.entity.DiaryStat;
+import com.journal.repository.DiaryRepository;
+import com.journal.repository.DiaryStatJdbcRepository;
+import com.journal.repository.DiaryStatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 由日记数据重建用户统计
+ * 在独立的写事务中执行，统计读取本身保持只读事务。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiaryStatsRebuilder {
+
+    private final DiaryStatRepository diaryStatRepository;
+    private final DiaryStatJdbcRepository diaryStatJdbcRepository;
+    private final DiaryRepository diaryRepository;
+
+    /**
+     * 先递增 generation 行，与写入方争用同一把锁：已持有该锁的写入提交后重建才继续，
+     * 其日记会被随后的读取看到；之后的写入等待重建提交，再把增量累加到重建结果上。
+     * 日记以普通读取获取，读取发生在取得锁之后，不加行锁，因此不会与修改 / 删除交叉等待。
+     *
+     * @return 重建后的统计行
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<DiaryStat> rebuild(Long userId) {
+        long startNanos = System.nanoTime();
+        diaryStatJdbcRepository.upsert(userId, List.of(DiaryStatDeltas.NEXT_GENERATION));
+        DiaryStatDeltas deltas = new DiaryStatDeltas(userId);
+        diaryRepository.findStatFieldsByUserId(userId).forEach(deltas::add);
+        diaryStatRepository.deleteCountsByUserId(userId);
+        diaryStatJdbcRepository.upsert(userId, deltas.markBuilt().counts());
+        log.info("Rebuilt diary stats for user {} in {} ms", userId, (System.nanoTime() - startNanos) / 1_000_000);
+        return diaryStatRepository.findByUserId(userId);
+    }
+}
@@ -0,0 +1,141 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryStatsResponse;
+import com.journal.entity.DiaryStat;
+import com.journal.repository.DiaryStatJdbcRepository;
+import com.journal.repository.DiaryStatRepository;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * 日记统计
+ * 写操作通过 apply 在各自事务内累加增量，读取只查询该用户的统计行，行数与日记总数无关
+ * （按日统计行数不超过有日记的天数）。首次读取尚未初始化的用户时从日记数据重建。
+ * ETag 取自统计行中的 generation，每次统计变化都在同一事务内递增。
+ */
+@Service
+@RequiredArgsConstructor
+@Timed("diary.service")
+public class DiaryStatsService {
+
+    private final DiaryStatRepository diaryStatRepository;
+    private final DiaryStatJdbcRepository diaryStatJdbcRepository;
+    private final DiaryStatsRebuilder diaryStatsRebuilder;
+    private final DiaryCache diaryCache;
+
+    /**
+     * 写入增量，须在日记写操作的事务内调用
+     */
+    @Transactional
+    public void apply(DiaryStatDeltas deltas) {
+        diaryStatJdbcRepository.upsert(deltas.getUserId(), deltas.toList());
+    }
+
+    /**
+     * 只读事务；尚未初始化的用户由 DiaryStatsRebuilder 在独立的写事务中重建，
+     * 直接使用重建返回的统计行，不再在本事务的快照中重读
+     */
+    @Transactional(readOnly = true)
+    public CachedResult<DiaryStatsResponse> getStats() {
+        Long userId = SecurityUtils.getCurrentUserId();
+        return diaryCache.getPage(userId, "stats", () -> {
+            List<DiaryStat> rows = diaryStatRepository.findByUserId(userId);
+            if (rows.stream().noneMatch(row -> isMeta(row, DiaryStat.BUILT))) {
+                rows = diaryStatsRebuilder.rebuild(userId);
+            }
+            return new CachedResult<>(toResponse(rows), etagOf(userId, rows));
+        });
+    }
+
+    public DiaryStatsResponse rebuild() {
+        Long userId = SecurityUtils.getCurrentUserId();
+        List<DiaryStat> rows = diaryStatsRebuilder.rebuild(userId);
+        diaryCache.evict(userId, null);
+        return toResponse(rows);
+    }
+
+    private static String etagOf(Long userId, List<DiaryStat> rows) {
+        long generation = rows.stream()
+                .filter(row -> isMeta(row, DiaryStat.GENERATION))
+                .mapToLong(DiaryStat::getEntries)
+                .findFirst()
+                .orElse(0);
+        return "W/\"stats-" + userId + "-" + generation + "\"";
+    }
+
+    private static boolean isMeta(DiaryStat row, String bucket) {
+        return DiaryStat.META.equals(row.getDimension()) && bucket.equals(row.getBucket());
+    }
+
+    private static DiaryStatsResponse toResponse(List<DiaryStat> rows) {
+        DiaryStatsResponse response = new DiaryStatsResponse();
+        Map<String, Long> moods = new TreeMap<>();
+        Map<String, Long> weathers = new TreeMap<>();
+        Map<String, Long> entriesByMonth = new TreeMap<>();
+        Map<String, Long> wordsByMonth = new TreeMap<>();
+        TreeSet<LocalDate> days = new TreeSet<>();
+
+        for (DiaryStat row : rows) {
+            if (row.getEntries() <= 0 && !DiaryStat.TOTAL.equals(row.getDimension())) {
+                continue;
+            }
+            switch (row.getDimension()) {
+                case DiaryStat.TOTAL -> {
+                    response.setTotalEntries(row.getEntries());
+                    response.setTotalWords(row.getWords());
+                }
+                case DiaryStat.MOOD -> moods.put(row.getBucket(), row.getEntries());
+                case DiaryStat.WEATHER -> weathers.put(row.getBucket(), row.getEntries());
+                case DiaryStat.MONTH -> {
+                    entriesByMonth.put(row.getBucket(), row.getEntries());
+                    wordsByMonth.put(row.getBucket(), row.getWords());
+                }
+                case DiaryStat.DAY -> days.add(LocalDate.parse(row.getBucket()));
+                default -> {
+                }
+            }
+        }
+
+        response.setMoods(moods);
+        response.setWeathers(weathers);
+        response.setEntriesByMonth(entriesByMonth);
+        response.setWordsByMonth(wordsByMonth);
+        applyStreaks(response, days);
+        return response;
+    }
+
+    private static void applyStreaks(DiaryStatsResponse response, TreeSet<LocalDate> days) {
+        if (days.isEmpty()) {
+            return;
+        }
+        int longest = 0;
+        int run = 0;
+        LocalDate previous = null;
+        for (LocalDate day : days) {
+            run = previous != null && previous.plusDays(1).equals(day) ? run + 1 : 1;
+            longest = Math.max(longest, run);
+            previous = day;
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate cursor = days.contains(today) ? today : today.minusDays(1);
+        int current = 0;
+        while (days.contains(cursor)) {
+            current++;
+            cursor = cursor.minusDays(1);
+        }
+
+        response.setCurrentStreak(current);
+        response.setLongestStreak(longest);
+        response.setLastEntryDate(days.last());
+    }
+}
@@ -0,0 +1,96 @@
+package com.journal.service;
+
+import com.journal.config.RoutingDataSource;
+import com.journal.dto.DiaryChanges;
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiaryTombstone;
+import com.journal.dto.SyncCursor;
+import com.journal.entity.Diary;
+import com.journal.repository.DiaryRepository;
+import com.journal.util.SecurityUtils;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 离线客户端的增量同步
+ * 客户端保存上次返回的 cursor，下次只取此后新建、修改和删除的日记。删除以墓碑形式返回，
+ * 墓碑保留 tombstone-retention-days 天，离线更久的客户端需要全量重建。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Timed("diary.service")
+public class DiarySyncService {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final DiaryRepository diaryRepository;
+
+    @Value("${diary.sync.tombstone-retention-days:90}")
+    private int tombstoneRetentionDays;
+
+    @Value("${diary.sync.settle-millis:2000}")
+    private long settleMillis;
+
+    /**
+     * 只读事务，但始终读主库：副本的复制延迟可能超过 settle 窗口，游标会越过尚未复制到副本的变更
+     */
+    @Transactional(readOnly = true)
+    public DiaryChanges getChanges(String since, int limit) {
+        Long userId = SecurityUtils.getCurrentUserId();
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        return RoutingDataSource.onPrimary(() -> readChanges(userId, since, pageSize));
+    }
+
+    private DiaryChanges readChanges(Long userId, String since, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+
+        SyncCursor cursor = since == null || since.isBlank() ? SyncCursor.START : SyncCursor.parse(since);
+        boolean fullResync = cursor != SyncCursor.START
+                && cursor.updatedAt().isBefore(now.minusDays(tombstoneRetentionDays));
+        if (fullResync) {
+            cursor = SyncCursor.START;
+        }
+        // 从头同步时客户端本地没有数据，不需要墓碑
+        boolean includeTombstones = cursor != SyncCursor.START;
+
+        List<Diary> rows = diaryRepository.findChangesAfter(userId, cursor.updatedAt(), cursor.id(),
+                now.minusNanos(settleMillis * 1_000_000), PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<DiaryResponse> changed = new ArrayList<>();
+        List<DiaryTombstone> deleted = new ArrayList<>();
+        for (Diary diary : rows) {
+            if (!diary.isDeleted()) {
+                changed.add(DiaryMapper.toResponse(diary));
+            } else if (includeTombstones) {
+                deleted.add(new DiaryTombstone(diary.getId(), diary.getUpdatedAt(), diary.getVersion()));
+            }
+        }
+        SyncCursor next = rows.isEmpty()
+                ? cursor
+                : new SyncCursor(rows.get(rows.size() - 1).getUpdatedAt(), rows.get(rows.size() - 1).getId());
+        return new DiaryChanges(changed, deleted, next == SyncCursor.START ? null : next.toString(),
+                hasMore, fullResync);
+    }
+
+    @Scheduled(cron = "${diary.sync.tombstone-purge-cron:0 0 5 * * *}")
+    @Transactional
+    public void purgeTombstones() {
+        int purged = diaryRepository.purgeTombstones(LocalDateTime.now().minusDays(tombstoneRetentionDays));
+        log.info("Purged {} diary tombstones older than {} days", purged, tombstoneRetentionDays);
+    }
+}
@@ -1,26 +1,65 @@
 package com.journal.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.journal.util.TokenDigest;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
+@RequiredArgsConstructor
 public class JWTService {
 
+    private final MeterRegistry meterRegistry;
+
     @Value("${jwt.secret:your-secret-key-must-be-at-least-32-characters-long-for-hs256}")
     private String secret;
 
-    @Value("${jwt.expiration:86400000}")
+    @Value("${jwt.expiration:900000}")
     private long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+    private Timer cachedVerifyTimer;
+    private Timer parsedVerifyTimer;
+    private Timer rejectedVerifyTimer;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt.verified-tokens");
+        cachedVerifyTimer = meterRegistry.timer("jwt.verify", "result", "cached");
+        parsedVerifyTimer = meterRegistry.timer("jwt.verify", "result", "parsed");
+        rejectedVerifyTimer = meterRegistry.timer("jwt.verify", "result", "rejected");
     }
 
     public String generateToken(Long userId, String username) {
@@ -32,32 +71,74 @@ public class JWTService {
                 .claim("username", username)
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public long getExpirationSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(expiration);
     }
 
-    public Long extractUserId(String token) {
-        return Long.parseLong(extractClaims(token).getSubject());
+    public Claims extractClaims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    public String extractUsername(String token) {
-        return extractClaims(token).get("username", String.class);
-    }
+    /**
+     * 验证令牌并返回认证信息。已验签的令牌会缓存到过期为止，同一令牌的后续请求无需再次解析和验签。
+     * 缓存以令牌的 SHA-256 摘要为键，内存中不保留可直接使用的令牌原文。
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        long startNanos = System.nanoTime();
+        long now = System.currentTimeMillis();
+        String key = TokenDigest.sha256Hex(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            Optional<VerifiedToken> result = cached.isExpired(now) ? Optional.empty() : Optional.of(cached);
+            return record(result.isPresent() ? cachedVerifyTimer : rejectedVerifyTimer, startNanos, result);
+        }
 
-    public boolean validateToken(String token) {
         try {
             Claims claims = extractClaims(token);
-            return claims.getExpiration().after(new Date());
-        } catch (Exception e) {
-            return false;
+            Date expiresAt = claims.getExpiration();
+            if (expiresAt == null || !expiresAt.after(new Date(now))) {
+                return record(rejectedVerifyTimer, startNanos, Optional.empty());
+            }
+            VerifiedToken verified = new VerifiedToken(
+                    Long.parseLong(claims.getSubject()),
+                    claims.get("username", String.class),
+                    expiresAt.getTime()
+            );
+            verifiedTokens.put(key, verified);
+            return record(parsedVerifyTimer, startNanos, Optional.of(verified));
+        } catch (JwtException | IllegalArgumentException e) {
+            return record(rejectedVerifyTimer, startNanos, Optional.empty());
+        }
+    }
+
+    private static <T> T record(Timer timer, long startNanos, T result) {
+        timer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    /**
+     * 缓存条目的存活时间与令牌剩余有效期一致
+     */
+    private static class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,92 @@
+package com.journal.service;
+
+import com.journal.dto.LoginResponse;
+import com.journal.entity.RefreshToken;
+import com.journal.repository.RefreshTokenRepository;
+import com.journal.util.TokenDigest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 刷新令牌的签发、轮换与作废
+ * 续期只需一次按摘要的索引查询、一次条件更新和一次 HMAC 签名，不再经过 BCrypt。
+ * 每个刷新令牌只能使用一次，已作废的令牌再次出现视为泄露，作废该用户的全部刷新令牌。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+    private static final String EXPIRED_MESSAGE = "登录已过期，请重新登录";
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JWTService jwtService;
+
+    @Value("${jwt.refresh-expiration:2592000000}")
+    private long refreshExpiration;
+
+    @Transactional
+    public String issue(Long userId, String username) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(TokenDigest.sha256Hex(rawToken));
+        token.setUserId(userId);
+        token.setUsername(username);
+        token.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000));
+        refreshTokenRepository.save(token);
+        return rawToken;
+    }
+
+    /**
+     * 以刷新令牌换取新的访问令牌与刷新令牌，旧刷新令牌随即作废
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponse refresh(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex(rawToken))
+                .orElseThrow(() -> new BadCredentialsException(EXPIRED_MESSAGE));
+        if (token.isRevoked() || refreshTokenRepository.revokeIfActive(token.getId()) == 0) {
+            int revoked = refreshTokenRepository.revokeAllByUserId(token.getUserId());
+            log.warn("Reuse of revoked refresh token {} for user {}, revoked {} active tokens",
+                    token.getId(), token.getUserId(), revoked);
+            throw new BadCredentialsException(EXPIRED_MESSAGE);
+        }
+        if (token.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new BadCredentialsException(EXPIRED_MESSAGE);
+        }
+
+        String refreshToken = issue(token.getUserId(), token.getUsername());
+        String accessToken = jwtService.generateToken(token.getUserId(), token.getUsername());
+        return new LoginResponse(accessToken, token.getUserId(), token.getUsername(),
+                refreshToken, jwtService.getExpirationSeconds());
+    }
+
+    /**
+     * 退出登录时作废刷新令牌；已签发的访问令牌在短有效期结束后自然失效
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeIfActive(token.getId()));
+    }
+
+    @Scheduled(cron = "${jwt.refresh-purge-cron:0 30 4 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+}
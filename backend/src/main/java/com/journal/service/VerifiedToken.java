@@ -0,0 +1,11 @@
+package com.journal.service;
+
+/**
+ * 验签通过的访问令牌中认证所需的信息
+ */
+public record VerifiedToken(Long userId, String username, long expiresAtMillis) {
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAtMillis <= nowMillis;
+    }
+}
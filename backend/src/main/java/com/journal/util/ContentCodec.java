@@ -0,0 +1,87 @@
+package com.journal.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 日记正文的存储编码
+ * 短正文以 UTF-8 原样存储；UTF-8 字节数达到 COMPRESS_THRESHOLD_BYTES 时以 zlib 压缩，
+ * 并在首字节写入 COMPRESSED_MARKER。0xF8 不会出现在合法的 UTF-8 中，
+ * 因此未压缩的正文（包括迁移前的历史数据）无需任何标记即可与压缩数据区分。
+ */
+public final class ContentCodec {
+
+    public static final int COMPRESS_THRESHOLD_BYTES = 512;
+
+    private static final byte COMPRESSED_MARKER = (byte) 0xF8;
+
+    private ContentCodec() {
+    }
+
+    /**
+     * 编码正文；压缩后不比原文小时仍存原文
+     */
+    public static byte[] encode(String content) {
+        if (content == null) {
+            return null;
+        }
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < COMPRESS_THRESHOLD_BYTES) {
+            return raw;
+        }
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            byte[] out = new byte[raw.length];
+            out[0] = COMPRESSED_MARKER;
+            int length = 1;
+            while (!deflater.finished()) {
+                if (length == out.length) {
+                    return raw;
+                }
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            return Arrays.copyOf(out, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    public static String decode(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (!isCompressed(data)) {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 1, data.length - 1);
+            byte[] out = new byte[data.length * 3];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                int inflated = inflater.inflate(out, length, out.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("日记正文压缩数据不完整");
+                }
+                length += inflated;
+            }
+            return new String(out, 0, length, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("日记正文压缩数据已损坏", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static boolean isCompressed(byte[] data) {
+        return data != null && data.length > 0 && data[0] == COMPRESSED_MARKER;
+    }
+}
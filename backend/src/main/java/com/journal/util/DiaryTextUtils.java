@@ -0,0 +1,77 @@
+package com.journal.util;
+
+/**
+ * 日记正文派生字段计算
+ * 列表只展示摘要与字数，写入时计算并落库，列表查询无需读取正文
+ */
+public final class DiaryTextUtils {
+
+    public static final int PREVIEW_LENGTH = 120;
+
+    private DiaryTextUtils() {
+    }
+
+    /**
+     * 取正文前 PREVIEW_LENGTH 个字符（UTF-16 长度，不拆开代理对）作为摘要，连续空白折叠为一个空格，超出部分以省略号结尾
+     */
+    public static String preview(String content) {
+        if (content == null) {
+            return null;
+        }
+        StringBuilder preview = new StringBuilder(PREVIEW_LENGTH + 3);
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < content.length()) {
+            int codePoint = content.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isWhitespace(codePoint)) {
+                pendingSpace = preview.length() > 0;
+                continue;
+            }
+            int needed = (pendingSpace ? 1 : 0) + Character.charCount(codePoint);
+            if (preview.length() + needed > PREVIEW_LENGTH) {
+                preview.append("...");
+                return preview.toString();
+            }
+            if (pendingSpace) {
+                preview.append(' ');
+                pendingSpace = false;
+            }
+            preview.appendCodePoint(codePoint);
+        }
+        return preview.toString();
+    }
+
+    /**
+     * 字数统计：每个汉字（及其他表意文字、假名）计 1，连续的字母数字计为 1 个单词，标点不计
+     */
+    public static int wordCount(String content) {
+        if (content == null) {
+            return 0;
+        }
+        int count = 0;
+        boolean inWord = false;
+        int i = 0;
+        while (i < content.length()) {
+            int codePoint = content.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isIdeographic(codePoint) || isKana(codePoint)) {
+                count++;
+                inWord = false;
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                if (!inWord) {
+                    count++;
+                    inWord = true;
+                }
+            } else {
+                inWord = false;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isKana(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HIRAGANA || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,35 @@
+package com.journal.util;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 按比例采样指定 logger 的日志，在 logback-spring.xml 中配置
+ * TurboFilter 在创建日志事件之前执行，被丢弃的日志不产生格式化与写出开销；其他 logger 不受影响。
+ */
+public class SampledLoggerFilter extends TurboFilter {
+
+    private String loggerName;
+    private double sampleRate = 1.0;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (sampleRate >= 1.0 || !logger.getName().equals(loggerName)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextDouble() < sampleRate ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setLoggerName(String loggerName) {
+        this.loggerName = loggerName;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+}
@@ -0,0 +1,31 @@
+package com.journal.util;
+
+import com.journal.exception.UnauthorizedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * 当前登录用户工具
+ * JWTAuthenticationFilter 将 userId 作为 principal 写入 SecurityContext
+ */
+public final class SecurityUtils {
+
+    private SecurityUtils() {
+    }
+
+    public static Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Long) {
+            return (Long) authentication.getPrincipal();
+        }
+        throw new UnauthorizedException("未登录或登录已过期");
+    }
+
+    /**
+     * 未登录时返回 null，供登录前也会执行的基础设施代码使用
+     */
+    public static Long findCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof Long userId ? userId : null;
+    }
+}
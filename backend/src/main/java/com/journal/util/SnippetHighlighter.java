@@ -0,0 +1,90 @@
+package com.journal.util;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 搜索结果摘要生成工具
+ * 截取第一个命中词附近的文本，并用 &lt;mark&gt; 标记所有命中词，其余内容做 HTML 转义
+ */
+public final class SnippetHighlighter {
+
+    private static final String MARK_OPEN = "<mark>";
+    private static final String MARK_CLOSE = "</mark>";
+
+    private SnippetHighlighter() {
+    }
+
+    public static String highlight(String text, List<String> terms, int contextChars) {
+        if (text == null || text.isEmpty() || terms.isEmpty()) {
+            return null;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        if (lower.length() != text.length()) {
+            // 个别字符小写后长度变化，退化为大小写敏感匹配以保证下标一致
+            lower = text;
+        }
+
+        int first = -1;
+        for (String term : terms) {
+            int index = lower.indexOf(term.toLowerCase(Locale.ROOT));
+            if (index >= 0 && (first < 0 || index < first)) {
+                first = index;
+            }
+        }
+        if (first < 0) {
+            return null;
+        }
+
+        int start = Math.max(0, first - contextChars);
+        int end = Math.min(text.length(), first + contextChars * 2);
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append("...");
+        }
+
+        int pos = start;
+        while (pos < end) {
+            int matchLength = matchAt(lower, pos, terms);
+            if (matchLength > 0) {
+                int matchEnd = Math.min(pos + matchLength, text.length());
+                snippet.append(MARK_OPEN);
+                appendEscaped(snippet, text, pos, matchEnd);
+                snippet.append(MARK_CLOSE);
+                pos = matchEnd;
+            } else {
+                appendEscaped(snippet, text, pos, pos + 1);
+                pos++;
+            }
+        }
+
+        if (end < text.length()) {
+            snippet.append("...");
+        }
+        return snippet.toString();
+    }
+
+    private static int matchAt(String lower, int pos, List<String> terms) {
+        int longest = 0;
+        for (String term : terms) {
+            if (term.length() > longest && lower.startsWith(term.toLowerCase(Locale.ROOT), pos)) {
+                longest = term.length();
+            }
+        }
+        return longest;
+    }
+
+    private static void appendEscaped(StringBuilder out, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\n', '\r' -> out.append(' ');
+                default -> out.append(c);
+            }
+        }
+    }
+}
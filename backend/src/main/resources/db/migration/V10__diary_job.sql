@@ -0,0 +1,19 @@
+-- 后台任务（导出 / 导入 / 重建搜索副本），表即队列
+CREATE TABLE IF NOT EXISTS diary_job (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    format VARCHAR(16),
+    gzip BIT(1) NOT NULL,
+    file_size BIGINT,
+    result TEXT,
+    error VARCHAR(500),
+    attempts INT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    started_at DATETIME(6),
+    finished_at DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_diary_job_user_status (user_id, status),
+    INDEX idx_diary_job_status (status, id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,26 @@
+-- 初始表结构：用户与日记（此前由 ddl-auto: update 创建）
+-- 已有的库以 baseline-on-migrate 记为版本 0 后依次执行全部迁移，每个脚本都可以在已存在相应结构的库上重复执行
+
+CREATE TABLE IF NOT EXISTS `user` (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_user_username (username)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+CREATE TABLE IF NOT EXISTS diary (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(200),
+    content TEXT NOT NULL,
+    mood VARCHAR(50),
+    weather VARCHAR(50),
+    diary_date DATE,
+    user_id BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    INDEX idx_created_at (created_at),
+    INDEX idx_user_id (user_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
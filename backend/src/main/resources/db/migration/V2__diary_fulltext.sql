@@ -0,0 +1,23 @@
+-- 为日记搜索添加全文索引（ngram 分词器，适用于中文内容），已存在时跳过
+-- 需要 MySQL 5.7.6+；ngram_token_size 默认为 2，需与 application.yml 中 diary.search.ngram-token-size 保持一致
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_fulltext_index$$
+
+CREATE PROCEDURE add_fulltext_index()
+BEGIN
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.statistics
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND index_name = 'ft_diary_title_content'
+    ) THEN
+        ALTER TABLE diary ADD FULLTEXT INDEX ft_diary_title_content (title, content) WITH PARSER ngram;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL add_fulltext_index();
+
+DROP PROCEDURE IF EXISTS add_fulltext_index;
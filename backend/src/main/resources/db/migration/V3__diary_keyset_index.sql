@@ -0,0 +1,32 @@
+-- 日记列表游标分页使用的联合索引，与 ORDER BY diary_date DESC, created_at DESC, id DESC 一致
+-- idx_user_id 是新索引的前缀，已存在时删除
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_keyset_index$$
+
+CREATE PROCEDURE add_keyset_index()
+BEGIN
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.statistics
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND index_name = 'idx_user_date_created_id'
+    ) THEN
+        ALTER TABLE diary ADD INDEX idx_user_date_created_id (user_id, diary_date, created_at, id);
+    END IF;
+
+    IF EXISTS (
+        SELECT * FROM information_schema.statistics
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND index_name = 'idx_user_id'
+    ) THEN
+        ALTER TABLE diary DROP INDEX idx_user_id;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL add_keyset_index();
+
+DROP PROCEDURE IF EXISTS add_keyset_index;
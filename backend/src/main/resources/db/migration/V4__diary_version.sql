@@ -0,0 +1,22 @@
+-- 日记的乐观锁版本号，已有日记从 0 开始，已存在时跳过
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_diary_version$$
+
+CREATE PROCEDURE add_diary_version()
+BEGIN
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.columns
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND column_name = 'version'
+    ) THEN
+        ALTER TABLE diary ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL add_diary_version();
+
+DROP PROCEDURE IF EXISTS add_diary_version;
@@ -0,0 +1,32 @@
+-- 日记列表摘要列 preview / word_count，已存在时跳过
+-- 历史日记的摘要由应用启动后的 DiaryPreviewBackfill 按 DiaryTextUtils 回填
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_diary_preview$$
+
+CREATE PROCEDURE add_diary_preview()
+BEGIN
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.columns
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND column_name = 'preview'
+    ) THEN
+        ALTER TABLE diary ADD COLUMN preview VARCHAR(200);
+    END IF;
+
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.columns
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND column_name = 'word_count'
+    ) THEN
+        ALTER TABLE diary ADD COLUMN word_count INT;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL add_diary_preview();
+
+DROP PROCEDURE IF EXISTS add_diary_preview;
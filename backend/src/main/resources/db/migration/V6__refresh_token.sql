@@ -0,0 +1,14 @@
+-- 刷新令牌，只保存令牌的 SHA-256 摘要
+CREATE TABLE IF NOT EXISTS refresh_token (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    token_hash VARCHAR(64) NOT NULL,
+    user_id BIGINT NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    revoked BIT(1) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_refresh_token_token_hash (token_hash),
+    INDEX idx_refresh_token_user_id (user_id),
+    INDEX idx_refresh_token_expires_at (expires_at)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
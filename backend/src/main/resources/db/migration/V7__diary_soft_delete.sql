@@ -0,0 +1,31 @@
+-- 日记软删除标记与增量同步使用的 (user_id, updated_at, id) 联合索引，已存在时跳过
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_diary_soft_delete$$
+
+CREATE PROCEDURE add_diary_soft_delete()
+BEGIN
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.columns
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND column_name = 'deleted'
+    ) THEN
+        ALTER TABLE diary ADD COLUMN deleted BOOLEAN NOT NULL DEFAULT FALSE;
+    END IF;
+
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.statistics
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND index_name = 'idx_user_updated_id'
+    ) THEN
+        ALTER TABLE diary ADD INDEX idx_user_updated_id (user_id, updated_at, id);
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL add_diary_soft_delete();
+
+DROP PROCEDURE IF EXISTS add_diary_soft_delete;
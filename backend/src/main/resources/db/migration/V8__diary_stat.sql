@@ -0,0 +1,11 @@
+-- 按用户增量维护的日记统计；没有 meta/built 行的用户在首次查询时由日记数据重建
+CREATE TABLE IF NOT EXISTS diary_stat (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    dimension VARCHAR(16) NOT NULL,
+    bucket VARCHAR(50) NOT NULL,
+    entries BIGINT NOT NULL,
+    words BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_diary_stat_user_dimension_bucket (user_id, dimension, bucket)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
@@ -0,0 +1,66 @@
+-- 正文压缩存储：删除 diary 上的旧全文索引，content 由 TEXT 转为 MEDIUMBLOB（原 UTF-8 字节保持不变），
+-- 创建搜索副本表 diary_search 并在其上建立 ngram 全文索引（需要 MySQL 5.7.6+）
+-- 历史正文的压缩与搜索副本由应用启动后的后台迁移（diary.storage.migration.*）分批完成，未迁移的日记搜索不到
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS compress_diary_content$$
+
+CREATE PROCEDURE compress_diary_content()
+BEGIN
+    IF EXISTS (
+        SELECT * FROM information_schema.statistics
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND index_name = 'ft_diary_title_content'
+    ) THEN
+        ALTER TABLE diary DROP INDEX ft_diary_title_content;
+    END IF;
+
+    IF EXISTS (
+        SELECT * FROM information_schema.columns
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary'
+        AND column_name = 'content'
+        AND data_type <> 'mediumblob'
+    ) THEN
+        ALTER TABLE diary MODIFY content MEDIUMBLOB NOT NULL;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL compress_diary_content();
+
+DROP PROCEDURE IF EXISTS compress_diary_content;
+
+CREATE TABLE IF NOT EXISTS diary_search (
+    diary_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    title VARCHAR(200),
+    content MEDIUMTEXT NOT NULL,
+    PRIMARY KEY (diary_id),
+    INDEX idx_search_user (user_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
+
+-- ngram_token_size 默认为 2，需与 application.yml 中 diary.search.ngram-token-size 保持一致
+DELIMITER $$
+
+DROP PROCEDURE IF EXISTS add_diary_search_fulltext$$
+
+CREATE PROCEDURE add_diary_search_fulltext()
+BEGIN
+    IF NOT EXISTS (
+        SELECT * FROM information_schema.statistics
+        WHERE table_schema = DATABASE()
+        AND table_name = 'diary_search'
+        AND index_name = 'ft_diary_search'
+    ) THEN
+        ALTER TABLE diary_search ADD FULLTEXT INDEX ft_diary_search (title, content) WITH PARSER ngram;
+    END IF;
+END$$
+
+DELIMITER ;
+
+CALL add_diary_search_fulltext();
+
+DROP PROCEDURE IF EXISTS add_diary_search_fulltext;
@@ -0,0 +1,61 @@
+package com.journal.config;
+
+import com.journal.entity.User;
+import com.journal.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 使用独立的内存库，其他测试写入的日记不影响「库中没有日记」的判断
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journal-seed-test;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "diary.seed.enabled=true"
+})
+@ActiveProfiles("test")
+class DataInitializerTest {
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seedsTheFirstUserOnlyWhileThereAreNoDiaries() {
+        // 启动时还没有用户，不写入示例数据
+        assertThat(count("diary")).isZero();
+        User first = userRepository.save(user("seed-first"));
+        userRepository.save(user("seed-second"));
+
+        dataInitializer.run();
+        dataInitializer.run();
+
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM diary", Long.class))
+                .containsExactly(first.getId());
+        assertThat(count("diary")).isEqualTo(3);
+        assertThat(count("diary_search")).isEqualTo(3);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("{noop}password");
+        user.setCreatedAt(LocalDateTime.now());
+        return user;
+    }
+}
@@ -0,0 +1,133 @@
+package com.journal.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTest {
+
+    private static final Long USER = 1L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void allowsBurstThenRejectsWithWait() {
+        RateLimiter limiter = limiter(true, 1, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT)).isZero();
+        }
+        long wait = limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT);
+
+        // 每秒 1 个令牌，下一个令牌约 1 秒后可用
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(meterRegistry.counter("diary.rate.limit", "category", "default", "outcome", "allowed").count())
+                .isEqualTo(3);
+        assertThat(meterRegistry.counter("diary.rate.limit", "category", "default", "outcome", "rejected").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refillsAfterReportedWait() throws InterruptedException {
+        RateLimiter limiter = limiter(true, 20, 2);
+        limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT);
+        limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT);
+
+        long wait = limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT);
+        assertThat(wait).isPositive();
+
+        TimeUnit.NANOSECONDS.sleep(wait + TimeUnit.MILLISECONDS.toNanos(5));
+        assertThat(limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT)).isZero();
+        assertThat(limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT)).isPositive();
+    }
+
+    @Test
+    void bucketsAreSeparatePerUserAndCategory() {
+        RateLimiter limiter = limiter(true, 1, 1);
+
+        assertThat(limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT)).isZero();
+        assertThat(limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT)).isPositive();
+        assertThat(limiter.tryAcquire(2L, RateLimiter.Category.DEFAULT)).isZero();
+        assertThat(limiter.tryAcquire(USER, RateLimiter.Category.SEARCH)).isZero();
+    }
+
+    @Test
+    void disabledOrAnonymousIsNeverLimited() {
+        RateLimiter disabled = limiter(false, 1, 1);
+        RateLimiter enabled = limiter(true, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(disabled.tryAcquire(USER, RateLimiter.Category.DEFAULT)).isZero();
+            assertThat(enabled.tryAcquire(null, RateLimiter.Category.DEFAULT)).isZero();
+        }
+    }
+
+    @Test
+    void concurrentCallersShareOneBurst() throws InterruptedException {
+        // 间隔 1000 秒，测试期间不会补充令牌，放行数恰为 burst
+        RateLimiter limiter = limiter(true, 0.001, 5);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    for (int i = 0; i < 1000; i++) {
+                        if (limiter.tryAcquire(USER, RateLimiter.Category.DEFAULT) == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(allowed).hasValue(5);
+    }
+
+    @Test
+    void exclusiveEntryUntilReleased() {
+        RateLimiter limiter = limiter(true, 1, 1);
+
+        assertThat(limiter.tryEnter(USER, RateLimiter.Category.EXPORT)).isTrue();
+        assertThat(limiter.tryEnter(USER, RateLimiter.Category.EXPORT)).isFalse();
+        assertThat(limiter.tryEnter(2L, RateLimiter.Category.EXPORT)).isTrue();
+
+        limiter.release(USER, RateLimiter.Category.EXPORT);
+        assertThat(limiter.tryEnter(USER, RateLimiter.Category.EXPORT)).isTrue();
+    }
+
+    @Test
+    void rejectsInvalidBudget() {
+        assertThatThrownBy(() -> limiter(true, 0, 1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> limiter(true, 1, 0)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private RateLimiter limiter(boolean enabled, double permitsPerSecond, int burst) {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("diary.rate-limit.default.permits-per-second", String.valueOf(permitsPerSecond))
+                .withProperty("diary.rate-limit.default.burst", String.valueOf(burst))
+                .withProperty("diary.rate-limit.search.permits-per-second", String.valueOf(permitsPerSecond))
+                .withProperty("diary.rate-limit.search.burst", String.valueOf(burst));
+        return new RateLimiter(enabled, 1000, 60000, environment, meterRegistry);
+    }
+}
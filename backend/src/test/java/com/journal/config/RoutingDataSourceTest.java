@@ -0,0 +1,100 @@
+package com.journal.config;
+
+import com.journal.support.TestAuth;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+
+    private ReplicaLagMonitor lagMonitor;
+    private RoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ReplicaLagMonitor(replica, "", "Seconds_Behind_Source", 5, meterRegistry);
+        routing = new RoutingDataSource(primary, replica, lagMonitor, 60_000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TestAuth.logout();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndWritesThePrimary() throws SQLException {
+        readOnly(true);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+
+        readOnly(false);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void writerReadsItsOwnWritesFromThePrimary() throws SQLException {
+        TestAuth.loginAsNewUser();
+        readOnly(false);
+        routing.getConnection();
+
+        readOnly(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        TestAuth.loginAsNewUser();
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void primaryHintOverridesReadOnlyRouting() throws SQLException {
+        TestAuth.loginAsNewUser();
+        readOnly(true);
+
+        Connection hinted = RoutingDataSource.onPrimary(() -> {
+            // 嵌套调用不会提前清除外层的提示
+            RoutingDataSource.onPrimary(() -> null);
+            return connection();
+        });
+
+        assertThat(hinted).isSameAs(primaryConnection);
+        assertThat(routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void failedReplicaCheckoutFallsBackToThePrimary() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+        readOnly(true);
+
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+        assertThat(lagMonitor.isAvailable()).isFalse();
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void readOnly(boolean readOnly) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
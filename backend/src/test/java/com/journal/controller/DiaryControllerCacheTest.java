@@ -0,0 +1,108 @@
+package com.journal.controller;
+
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.service.DiaryService;
+import com.journal.service.JWTService;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DiaryControllerCacheTest {
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void entryAnswersNotModifiedUntilItIsUpdated() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        String token = jwtService.generateToken(userId, "cache-test");
+        DiaryResponse created = diaryService.create(request("first"));
+        String path = "/diaries/" + created.getId();
+
+        String etag = etag(path, token);
+        assertThat(etag).startsWith("W/\"");
+        mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        // MockMvc 请求结束时安全过滤器会清空 SecurityContext
+        TestAuth.loginAs(userId);
+        diaryService.update(created.getId(), request("second"));
+
+        mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        assertThat(etag(path, token)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void listEtagChangesOnlyForTheWritingUser() throws Exception {
+        Long writer = TestAuth.loginAsNewUser();
+        String writerToken = jwtService.generateToken(writer, "writer");
+        diaryService.create(request("writer"));
+        Long reader = TestAuth.loginAsNewUser();
+        String readerToken = jwtService.generateToken(reader, "reader");
+        diaryService.create(request("reader"));
+
+        String writerEtag = etag("/diaries", writerToken);
+        String readerEtag = etag("/diaries", readerToken);
+        mockMvc.perform(get("/diaries").header(HttpHeaders.AUTHORIZATION, "Bearer " + writerToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, writerEtag))
+                .andExpect(status().isNotModified());
+
+        TestAuth.loginAs(writer);
+        diaryService.create(request("writer again"));
+
+        assertThat(etag("/diaries", writerToken)).isNotEqualTo(writerEtag);
+        mockMvc.perform(get("/diaries").header(HttpHeaders.AUTHORIZATION, "Bearer " + readerToken)
+                        .header(HttpHeaders.IF_NONE_MATCH, readerEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        TestAuth.loginAsNewUser();
+        diaryService.create(request("cached"));
+
+        assertThat(diaryService.getList(0, 20)).isSameAs(diaryService.getList(0, 20));
+        assertThat(diaryService.getSlice("", 20)).isSameAs(diaryService.getSlice("", 20));
+    }
+
+    private String etag(String path, String token) throws Exception {
+        return mockMvc.perform(get(path).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private static DiaryRequest request(String content) {
+        DiaryRequest request = new DiaryRequest();
+        request.setTitle("title");
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,86 @@
+package com.journal.exception;
+
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.service.DiaryService;
+import com.journal.service.JWTService;
+import com.journal.support.TestAuth;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class GlobalExceptionHandlerTest {
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void apiExceptionsKeepTheirStatusAndMessage() throws Exception {
+        TestAuth.loginAsNewUser();
+        DiaryRequest request = new DiaryRequest();
+        request.setContent("theirs");
+        DiaryResponse foreign = diaryService.create(request);
+        Long userId = TestAuth.loginAsNewUser();
+        String token = "Bearer " + jwtService.generateToken(userId, "error-test");
+
+        mockMvc.perform(get("/diaries/" + Long.MAX_VALUE).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("日记不存在"));
+        mockMvc.perform(get("/diaries/" + foreign.getId()).header(HttpHeaders.AUTHORIZATION, token))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/diaries/" + foreign.getId()).header(HttpHeaders.AUTHORIZATION, token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\": "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("请求体格式错误"));
+    }
+
+    @Test
+    void unexpectedExceptionsAreServerErrorsWithoutDetails() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        GlobalExceptionHandler handler = new GlobalExceptionHandler(meterRegistry);
+
+        ResponseEntity<ErrorResponse> response = handler.handleRuntimeException(
+                new IllegalStateException("connection to db-primary:3306 refused"));
+
+        // 以前由控制器按 404 返回并带出内部信息
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(response.getBody()).isEqualTo(new ErrorResponse("服务器内部错误"));
+        assertThat(meterRegistry.counter("api.errors",
+                "exception", "IllegalStateException", "status", "500").count()).isEqualTo(1);
+    }
+
+    @Test
+    void apiExceptionsCaptureNoStackTrace() {
+        assertThat(new NotFoundException("日记不存在").getStackTrace()).isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryBatchOperation;
+import com.journal.dto.DiaryBatchOperation.Type;
+import com.journal.dto.DiaryBatchResponse;
+import com.journal.dto.DiaryBatchResult;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.entity.Diary;
+import com.journal.repository.DiaryRepository;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DiaryBatchServiceTest {
+
+    @Autowired
+    private DiaryBatchService diaryBatchService;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void reportsEachOperationOnItsOwn() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse foreign = diaryService.create(request("someone else"));
+        Long userId = TestAuth.loginAsNewUser();
+        DiaryResponse toUpdate = diaryService.create(request("before"));
+        DiaryResponse toDelete = diaryService.create(request("doomed"));
+
+        DiaryBatchResponse response = diaryBatchService.execute(Arrays.asList(
+                new DiaryBatchOperation(Type.CREATE, null, request("new")),
+                new DiaryBatchOperation(Type.CREATE, null, request(" ")),
+                new DiaryBatchOperation(null, null, request("no op")),
+                null,
+                new DiaryBatchOperation(Type.UPDATE, null, request("no id")),
+                new DiaryBatchOperation(Type.UPDATE, toUpdate.getId(), request("after")),
+                new DiaryBatchOperation(Type.DELETE, toDelete.getId(), null),
+                new DiaryBatchOperation(Type.UPDATE, toDelete.getId(), request("deleted above")),
+                new DiaryBatchOperation(Type.DELETE, foreign.getId(), null)));
+
+        assertThat(response.getResults()).extracting(DiaryBatchResult::getStatus)
+                .containsExactly(201, 400, 400, 400, 400, 200, 204, 404, 404);
+        assertThat(response.getResults()).extracting(DiaryBatchResult::getIndex)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(response.getResults().get(1).getMessage()).startsWith("diary.content:");
+        assertThat(response.getResults().get(2).getMessage()).startsWith("op:");
+        assertThat(response.getResults().get(4).getMessage()).startsWith("id:");
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(6);
+
+        Long createdId = response.getResults().get(0).getId();
+        assertThat(diaryRepository.findById(createdId)).get()
+                .extracting(Diary::getUserId, Diary::getContent)
+                .containsExactly(userId, "new");
+        assertThat(diaryRepository.findById(toUpdate.getId())).get()
+                .extracting(Diary::getContent).isEqualTo("after");
+        assertThat(diaryRepository.findById(toDelete.getId())).isEmpty();
+        assertThat(diaryRepository.findById(foreign.getId())).isPresent();
+    }
+
+    @Test
+    void createsAcrossChunksWithDistinctIds() {
+        Long userId = TestAuth.loginAsNewUser();
+        List<DiaryBatchOperation> operations = new ArrayList<>();
+        IntStream.range(0, 250).forEach(i -> operations.add(
+                new DiaryBatchOperation(Type.CREATE, null, request("entry " + i))));
+
+        DiaryBatchResponse response = diaryBatchService.execute(operations);
+
+        assertThat(response.getSucceeded()).isEqualTo(250);
+        List<Long> ids = response.getResults().stream().map(DiaryBatchResult::getId).toList();
+        assertThat(ids).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(diaryRepository.findAllById(ids)).hasSize(250)
+                .extracting(Diary::getUserId).containsOnly(userId);
+    }
+
+    @Test
+    void invalidItemsDoNotRejectTheWholeRequest() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        String token = jwtService.generateToken(userId, "batch-test");
+
+        mockMvc.perform(post("/diaries/batch")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"operations": [
+                                  {"op": "CREATE", "diary": {"content": "ok"}},
+                                  {"diary": {"content": "missing op"}},
+                                  {"op": "CREATE", "diary": {"content": ""}}
+                                ]}"""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].status").value(400))
+                .andExpect(jsonPath("$.results[2].status").value(400));
+    }
+
+    private static DiaryRequest request(String content) {
+        DiaryRequest request = new DiaryRequest();
+        request.setTitle("title");
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,41 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiaryCacheTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 5, 10, 12, 0, 0);
+
+    @Test
+    void etagChangesWithVersionEvenWithinTheSameTimestamp() {
+        String first = DiaryCache.etagOf(List.of(response(1L, UPDATED_AT, 3L)), 0);
+        String second = DiaryCache.etagOf(List.of(response(1L, UPDATED_AT, 4L)), 0);
+
+        assertThat(first).isNotEqualTo(second);
+        assertThat(DiaryCache.etagOf(List.of(response(1L, UPDATED_AT, 3L)), 0)).isEqualTo(first);
+    }
+
+    @Test
+    void etagChangesWithSaltAndContents() {
+        String etag = DiaryCache.etagOf(List.of(response(1L, UPDATED_AT, 0L)), 0);
+
+        assertThat(DiaryCache.etagOf(List.of(response(1L, UPDATED_AT, 0L)), 1)).isNotEqualTo(etag);
+        assertThat(DiaryCache.etagOf(List.of(response(2L, UPDATED_AT, 0L)), 0)).isNotEqualTo(etag);
+        assertThat(DiaryCache.etagOf(List.of(response(1L, UPDATED_AT.plusNanos(1000), 0L)), 0)).isNotEqualTo(etag);
+        assertThat(etag).startsWith("W/\"").endsWith("\"");
+    }
+
+    private static DiaryResponse response(Long id, LocalDateTime updatedAt, Long version) {
+        DiaryResponse response = new DiaryResponse();
+        response.setId(id);
+        response.setUpdatedAt(updatedAt);
+        response.setVersion(version);
+        return response;
+    }
+}
@@ -0,0 +1,170 @@
+package com.journal.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.journal.dto.DiaryImportResponse;
+import com.journal.exception.BadRequestException;
+import com.journal.repository.DiaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DiaryImportServiceTest {
+
+    @Autowired
+    private DiaryImportService diaryImportService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Test
+    void skipsDuplicatesWithinAndAcrossImports() throws IOException {
+        Long userId = newUserId();
+        String json = exportOf(record(1, "first"), record(2, "second"), record(1, "first"), record(3, "third"));
+        int defaultChunkSize = (int) ReflectionTestUtils.getField(diaryImportService, "chunkSize");
+        // 批大小为 2 时重复记录落在另一批，由已提交批次的去重查询识别
+        ReflectionTestUtils.setField(diaryImportService, "chunkSize", 2);
+        try {
+            DiaryImportResponse first = diaryImportService.importDiaries(userId, plain(json));
+            DiaryImportResponse second = diaryImportService.importDiaries(userId, plain(json));
+
+            assertThat(first.isCompleted()).isTrue();
+            assertThat(first.getTotal()).isEqualTo(4);
+            assertThat(first.getImported()).isEqualTo(3);
+            assertThat(first.getDuplicates()).isEqualTo(1);
+            assertThat(second.getImported()).isZero();
+            assertThat(second.getDuplicates()).isEqualTo(4);
+            assertThat(countOf(userId)).isEqualTo(3);
+        } finally {
+            ReflectionTestUtils.setField(diaryImportService, "chunkSize", defaultChunkSize);
+        }
+    }
+
+    @Test
+    void detectsGzipBodies() throws IOException {
+        Long userId = newUserId();
+        String json = exportOf(record(1, "first"), record(2, "second"));
+
+        DiaryImportResponse response = diaryImportService.importDiaries(userId, gzip(json));
+
+        assertThat(response.isCompleted()).isTrue();
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(countOf(userId)).isEqualTo(2);
+    }
+
+    @Test
+    void detectsSmileAndCborBodies() throws IOException {
+        String json = exportOf(record(1, "first"), record(2, "second"));
+        JsonFactory cbor = CBORFactory.builder().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER).build();
+
+        for (JsonFactory factory : new JsonFactory[]{new SmileFactory(), cbor}) {
+            Long userId = newUserId();
+            byte[] body = new ObjectMapper(factory).writeValueAsBytes(new ObjectMapper().readTree(json));
+
+            DiaryImportResponse response = diaryImportService.importDiaries(userId, new ByteArrayInputStream(body));
+
+            assertThat(response.isCompleted()).as(factory.getFormatName()).isTrue();
+            assertThat(response.getImported()).as(factory.getFormatName()).isEqualTo(2);
+            assertThat(countOf(userId)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void countsInvalidRecordsAndRejectsNonArrays() throws IOException {
+        Long userId = newUserId();
+        String json = exportOf(record(1, "kept"), record(2, " "));
+
+        DiaryImportResponse response = diaryImportService.importDiaries(userId, plain(json));
+
+        assertThat(response.getImported()).isEqualTo(1);
+        assertThat(response.getInvalid()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().asString().contains("content");
+        assertThatThrownBy(() -> diaryImportService.importDiaries(userId, plain("{\"content\": \"x\"}")))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void keepsRecordsReadBeforeMalformedJson() throws IOException {
+        Long userId = newUserId();
+        String json = exportOf(record(1, "first"), record(2, "second"));
+        String malformed = json.substring(0, json.length() - 1) + ", {\"content\": }]";
+
+        DiaryImportResponse response = diaryImportService.importDiaries(userId, plain(malformed));
+
+        assertThat(response.isCompleted()).isFalse();
+        assertThat(response.getImported()).isEqualTo(2);
+        assertThat(response.getErrors()).singleElement().asString().contains("JSON");
+        assertThat(countOf(userId)).isEqualTo(2);
+    }
+
+    @Test
+    void writesNothingMoreWhenTheStreamFails() throws IOException {
+        Long userId = newUserId();
+        String[] records = new String[50];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = record(i + 1, "entry " + i + " " + "x".repeat(200));
+        }
+        byte[] compressed = gzip(exportOf(records)).readAllBytes();
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+
+        assertThatThrownBy(() -> diaryImportService.importDiaries(userId, new ByteArrayInputStream(truncated)))
+                .isInstanceOf(IOException.class);
+        // 默认批大小内的记录尚未提交，读流失败后不再写入
+        assertThat(countOf(userId)).isZero();
+    }
+
+    private long countOf(Long userId) {
+        return diaryRepository.findByUserIdOrderByDiaryDateDescCreatedAtDesc(userId, PageRequest.of(0, 1))
+                .getTotalElements();
+    }
+
+    private static Long newUserId() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    private static String record(int day, String content) {
+        return String.format("{\"title\": \"t\", \"content\": \"%s\", \"diaryDate\": \"2024-01-%02d\", "
+                + "\"createdAt\": \"2024-01-%02dT08:00:00\", \"updatedAt\": \"2024-01-%02dT09:00:00\"}",
+                content, day, day, day);
+    }
+
+    private static String exportOf(String... records) {
+        StringJoiner joiner = new StringJoiner(",\n", "[\n", "\n]");
+        for (String record : records) {
+            joiner.add(record);
+        }
+        return joiner.toString();
+    }
+
+    private static ByteArrayInputStream plain(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ByteArrayInputStream gzip(String json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ByteArrayInputStream(bytes.toByteArray());
+    }
+}
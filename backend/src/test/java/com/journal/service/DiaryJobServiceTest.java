@@ -0,0 +1,171 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryJobResponse;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.entity.DiaryJob;
+import com.journal.exception.RateLimitExceededException;
+import com.journal.repository.DiaryJobRepository;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DiaryJobServiceTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Autowired
+    private DiaryJobService diaryJobService;
+
+    @Autowired
+    private DiaryJobRepository diaryJobRepository;
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(diaryJobService, "recovered", true);
+        TestAuth.logout();
+    }
+
+    @Test
+    void exportJobFileImportsBackThroughAnImportJob() throws Exception {
+        TestAuth.loginAsNewUser();
+        diaryService.create(request("第一篇"));
+        diaryService.create(request("第二篇"));
+
+        DiaryJobResponse export = await(diaryJobService.submitExport("json", true));
+        assertThat(export.getStatus()).isEqualTo(DiaryJob.Status.SUCCEEDED);
+        DiaryJobService.JobFile file = diaryJobService.openFile(export.getId());
+        assertThat(Files.size(file.path())).isEqualTo(export.getFileSize()).isPositive();
+
+        TestAuth.loginAsNewUser();
+        DiaryJobResponse imported;
+        try (InputStream in = Files.newInputStream(file.path())) {
+            imported = await(diaryJobService.submitImport(in));
+        }
+        assertThat(imported.getStatus()).isEqualTo(DiaryJob.Status.SUCCEEDED);
+        assertThat(imported.getResult().get("imported").asInt()).isEqualTo(2);
+        assertThat(diaryService.getList(0, 10).value().getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void failedJobReleasesItsWorkerSlot() throws Exception {
+        TestAuth.loginAsNewUser();
+        Semaphore slots = (Semaphore) ReflectionTestUtils.getField(diaryJobService, "slots");
+        int workers = (int) ReflectionTestUtils.getField(diaryJobService, "workers");
+
+        DiaryJobResponse failed = await(diaryJobService.submitImport(InputStream.nullInputStream()));
+
+        assertThat(failed.getStatus()).isEqualTo(DiaryJob.Status.FAILED);
+        assertThat(failed.getError()).isEqualTo("导入文件须为导出格式的 JSON 数组");
+        assertThat(slots.availablePermits()).isEqualTo(workers);
+    }
+
+    @Test
+    void reindexRewritesTheSearchCopyAndDropsOrphans() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        DiaryResponse kept = diaryService.create(request("保留的日记"));
+        DiaryResponse missing = diaryService.create(request("副本丢失的日记"));
+        DiaryResponse removed = diaryService.create(request("删除的日记"));
+        diaryService.delete(removed.getId());
+        jdbcTemplate.update("DELETE FROM diary_search WHERE diary_id = ?", missing.getId());
+        jdbcTemplate.update("INSERT INTO diary_search (diary_id, user_id, title, content) VALUES (?, ?, NULL, ?)",
+                -userId, userId, "孤立的副本");
+
+        DiaryJobResponse reindex = await(diaryJobService.submitReindex());
+
+        assertThat(reindex.getStatus()).isEqualTo(DiaryJob.Status.SUCCEEDED);
+        assertThat(reindex.getResult().get("indexed").asInt()).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForList("SELECT diary_id FROM diary_search WHERE user_id = ? ORDER BY diary_id",
+                Long.class, userId)).containsExactly(kept.getId(), missing.getId());
+    }
+
+    @Test
+    void activeJobsPerUserAreLimited() {
+        TestAuth.loginAsNewUser();
+        // 暂停认领，提交的任务保持排队
+        ReflectionTestUtils.setField(diaryJobService, "recovered", false);
+        int limit = (int) ReflectionTestUtils.getField(diaryJobService, "maxActivePerUser");
+        for (int i = 0; i < limit; i++) {
+            diaryJobService.submitReindex();
+        }
+
+        assertThatThrownBy(() -> diaryJobService.submitReindex())
+                .isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void recoveryRequeuesInterruptedJobsUntilAttemptsRunOut() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        int maxAttempts = (int) ReflectionTestUtils.getField(diaryJobService, "maxAttempts");
+        ReflectionTestUtils.setField(diaryJobService, "recovered", false);
+        DiaryJob interrupted = diaryJobRepository.save(runningJob(userId, 1));
+        DiaryJob exhausted = diaryJobRepository.save(runningJob(userId, maxAttempts));
+
+        // 认领是条件更新：已在运行的任务不能再次认领
+        Integer claimed = transactionTemplate.execute(status -> diaryJobRepository.claim(interrupted.getId(),
+                DiaryJob.Status.QUEUED, DiaryJob.Status.RUNNING, LocalDateTime.now()));
+        assertThat(claimed).isZero();
+
+        diaryJobService.recover();
+
+        DiaryJobResponse retried = await(diaryJobService.get(interrupted.getId()));
+        assertThat(retried.getStatus()).isEqualTo(DiaryJob.Status.SUCCEEDED);
+        assertThat(retried.getAttempts()).isEqualTo(2);
+        DiaryJobResponse failed = diaryJobService.get(exhausted.getId());
+        assertThat(failed.getStatus()).isEqualTo(DiaryJob.Status.FAILED);
+        assertThat(failed.getAttempts()).isEqualTo(maxAttempts);
+    }
+
+    private DiaryJobResponse await(DiaryJobResponse job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        DiaryJobResponse current = job;
+        while (List.of(DiaryJob.Status.QUEUED, DiaryJob.Status.RUNNING).contains(current.getStatus())) {
+            assertThat(System.currentTimeMillis()).as("job %d finished", job.getId()).isLessThan(deadline);
+            Thread.sleep(20);
+            current = diaryJobService.get(job.getId());
+        }
+        return current;
+    }
+
+    private static DiaryJob runningJob(Long userId, int attempts) {
+        DiaryJob job = new DiaryJob();
+        job.setUserId(userId);
+        job.setType(DiaryJob.Type.REINDEX);
+        job.setStatus(DiaryJob.Status.RUNNING);
+        job.setAttempts(attempts);
+        job.setStartedAt(LocalDateTime.now());
+        return job;
+    }
+
+    private static DiaryRequest request(String content) {
+        DiaryRequest request = new DiaryRequest();
+        request.setContent(content);
+        return request;
+    }
+}
@@ -0,0 +1,106 @@
+package com.journal.service;
+
+import com.journal.entity.Diary;
+import com.journal.repository.DiaryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DiaryPreviewBackfillTest {
+
+    private static final List<String> CONTENTS = List.of(
+            "今天天气真好，阳光明媚。\n\n下午和朋友一起去喝咖啡。",
+            "  \t leading and   trailing\n\n\n whitespace   \r\n",
+            "hello world, 你好世界! 123 abc-def",
+            "ひらがなとカタカナ、そして漢字。",
+            "😀 emoji 🎉 outside the BMP 𠀀𠀁 " + "𠀀".repeat(130),
+            "长".repeat(119) + "   \n  " + "尾巴后面还有很多内容".repeat(5),
+            "a　b c d",
+            " ");
+
+    @Autowired
+    private DiaryPreviewBackfill backfill;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void backfillMatchesWhatThePersistCallbackWrites() throws InterruptedException {
+        Long userId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        List<Long> persisted = CONTENTS.stream().map(content -> persist(userId, content)).toList();
+        List<Long> legacy = CONTENTS.stream().map(content -> insertLegacy(userId, content)).toList();
+
+        assertThat(backfill.backfill(0)).isGreaterThanOrEqualTo(CONTENTS.size());
+
+        for (int i = 0; i < CONTENTS.size(); i++) {
+            Map<String, Object> expected = derivedFields(persisted.get(i));
+            Map<String, Object> actual = derivedFields(legacy.get(i));
+            assertThat(actual).as("content %d", i).isEqualTo(expected);
+            assertThat((String) actual.get("preview")).isNotNull().hasSizeLessThanOrEqualTo(123);
+        }
+        assertThat(backfill.backfill(0)).isZero();
+    }
+
+    @Test
+    void derivedFieldsFollowDiaryTextUtils() throws InterruptedException {
+        Long userId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        Long id = insertLegacy(userId, "  hello   world\n\n你好，世界  ");
+
+        backfill.backfill(0);
+
+        // 拉丁单词按词计数，汉字逐字计数；SQL 的 CHAR_LENGTH 无法得到同样的结果
+        assertThat(derivedFields(id))
+                .containsEntry("preview", "hello world 你好，世界")
+                .containsEntry("word_count", 6);
+    }
+
+    @Test
+    void backfillSkipsRowsWrittenSinceTheyWereRead() throws InterruptedException {
+        Long userId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        Long id = insertLegacy(userId, "old content");
+        // 模拟回填读取之后接口写入了新内容与摘要
+        jdbcTemplate.update("UPDATE diary SET content = ?, preview = ?, word_count = ? WHERE id = ?",
+                "new content".getBytes(StandardCharsets.UTF_8), "new content", 2, id);
+
+        backfill.backfill(0);
+
+        assertThat(derivedFields(id)).containsEntry("preview", "new content");
+    }
+
+    private Long persist(Long userId, String content) {
+        Diary diary = new Diary();
+        diary.setUserId(userId);
+        diary.setContent(content);
+        return diaryRepository.save(diary).getId();
+    }
+
+    /**
+     * 模拟本次变更之前写入的日记：摘要列为空，正文为未压缩的 UTF-8
+     */
+    private Long insertLegacy(Long userId, String content) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO diary (content, user_id, created_at, updated_at, version) VALUES (?, ?, ?, ?, 0)",
+                content.getBytes(StandardCharsets.UTF_8), userId, now, now);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM diary WHERE user_id = ?", Long.class, userId);
+    }
+
+    private Map<String, Object> derivedFields(Long id) {
+        return jdbcTemplate.queryForMap("SELECT preview, word_count FROM diary WHERE id = ?", id);
+    }
+}
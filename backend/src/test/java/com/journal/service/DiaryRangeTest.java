@@ -0,0 +1,150 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryCalendar;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySummaryResponse;
+import com.journal.exception.BadRequestException;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DiaryRangeTest {
+
+    private static final LocalDate MARCH_1 = LocalDate.of(2024, 3, 1);
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void rangeIncludesBothEndsInDateOrder() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse last = diaryService.create(request("last", null, MARCH_1.plusDays(9)));
+        diaryService.create(request("before", null, MARCH_1.minusDays(1)));
+        DiaryResponse first = diaryService.create(request("first", null, MARCH_1));
+        DiaryResponse middle = diaryService.create(request("middle", null, MARCH_1.plusDays(4)));
+        diaryService.create(request("after", null, MARCH_1.plusDays(10)));
+        DiaryResponse removed = diaryService.create(request("removed", null, MARCH_1.plusDays(5)));
+        diaryService.delete(removed.getId());
+
+        assertThat(diaryService.getRange(MARCH_1, MARCH_1.plusDays(9)).value())
+                .extracting(DiarySummaryResponse::getId)
+                .containsExactly(first.getId(), middle.getId(), last.getId());
+
+        TestAuth.loginAsNewUser();
+        assertThat(diaryService.getRange(MARCH_1, MARCH_1.plusDays(9)).value()).isEmpty();
+    }
+
+    @Test
+    void rangeIsLimitedToOneYear() {
+        TestAuth.loginAsNewUser();
+
+        assertThat(diaryService.getRange(MARCH_1, MARCH_1.plusDays(365)).value()).isEmpty();
+        assertThatThrownBy(() -> diaryService.getRange(MARCH_1, MARCH_1.plusDays(366)))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> diaryService.getRange(MARCH_1, MARCH_1.minusDays(1)))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rangeEtagChangesWhenAnEntryInRangeChanges() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse inRange = diaryService.create(request("in range", null, MARCH_1));
+        DiaryResponse outside = diaryService.create(request("outside", null, MARCH_1.plusMonths(2)));
+        String etag = diaryService.getRange(MARCH_1, MARCH_1.plusDays(30)).etag();
+
+        diaryService.update(outside.getId(), request("outside, edited", null, null));
+        assertThat(diaryService.getRange(MARCH_1, MARCH_1.plusDays(30)).etag()).isEqualTo(etag);
+
+        diaryService.update(inRange.getId(), request("in range, edited", null, null));
+        assertThat(diaryService.getRange(MARCH_1, MARCH_1.plusDays(30)).etag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void calendarMarksDaysAndTakesTheLastEntrysMood() {
+        TestAuth.loginAsNewUser();
+        diaryService.create(request("first of the month", "happy", MARCH_1));
+        diaryService.create(request("morning", "happy", MARCH_1.plusDays(14)));
+        diaryService.create(request("evening", "sad", MARCH_1.plusDays(14)));
+        diaryService.create(request("noted", "calm", MARCH_1.plusDays(30)));
+        // 最后一篇没有心情时当天心情为空
+        diaryService.create(request("noted again", null, MARCH_1.plusDays(30)));
+        diaryService.create(request("next month", "happy", MARCH_1.plusMonths(1)));
+
+        DiaryCalendar calendar = diaryService.getCalendar(YearMonth.of(2024, 3)).value();
+
+        assertThat(calendar.getMonth()).isEqualTo("2024-03");
+        assertThat(calendar.getDays()).isEqualTo(1 | 1 << 14 | 1 << 30);
+        assertThat(calendar.getMoods()).hasSize(31);
+        String[] expected = new String[31];
+        expected[0] = "happy";
+        expected[14] = "sad";
+        assertThat(calendar.getMoods()).containsExactlyElementsOf(Arrays.asList(expected));
+    }
+
+    @Test
+    void calendarEtagIsDerivedFromTheMonthsEntries() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse inMonth = diaryService.create(request("in month", "happy", MARCH_1));
+        DiaryResponse otherMonth = diaryService.create(request("other month", "happy", MARCH_1.plusMonths(1)));
+        String etag = diaryService.getCalendar(YearMonth.of(2024, 3)).etag();
+
+        diaryService.update(otherMonth.getId(), request("other month, edited", "sad", null));
+        assertThat(diaryService.getCalendar(YearMonth.of(2024, 3)).etag()).isEqualTo(etag);
+
+        // 心情不变的修改也会更换 ETag，客户端据此重新拉取
+        diaryService.update(inMonth.getId(), request("in month, edited", "happy", null));
+        assertThat(diaryService.getCalendar(YearMonth.of(2024, 3)).etag()).isNotEqualTo(etag);
+    }
+
+    @Test
+    void malformedDatesAreBadRequests() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        String token = "Bearer " + jwtService.generateToken(userId, "range-test");
+
+        mockMvc.perform(get("/diaries/calendar").param("month", "2024-13").header("Authorization", token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/diaries/range").param("from", "2024-03-01").param("to", "March")
+                        .header("Authorization", token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/diaries/range").param("from", "2024-03-02").param("to", "2024-03-01")
+                        .header("Authorization", token))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static DiaryRequest request(String content, String mood, LocalDate diaryDate) {
+        DiaryRequest request = new DiaryRequest();
+        request.setContent(content);
+        request.setMood(mood);
+        request.setDiaryDate(diaryDate);
+        return request;
+    }
+}
@@ -0,0 +1,148 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryBatchOperation;
+import com.journal.dto.DiaryBatchOperation.Type;
+import com.journal.dto.DiaryBatchResult;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.entity.Diary;
+import com.journal.exception.ConflictException;
+import com.journal.exception.NotFoundException;
+import com.journal.repository.DiaryRepository;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DiaryServiceUpdateTest {
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryBatchService diaryBatchService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void updateBumpsVersionAndAnswersFromTheRequest() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse created = diaryService.create(request("before", LocalDate.of(2024, 3, 1), null));
+        assertThat(created.getVersion()).isZero();
+
+        DiaryResponse updated = diaryService.update(created.getId(), request("after", null, 0L));
+
+        assertThat(updated.getId()).isEqualTo(created.getId());
+        assertThat(updated.getContent()).isEqualTo("after");
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(updated.getUpdatedAt()).isNotNull();
+        // 响应不回查整行：日期取自修改前的加锁读取，createdAt 不返回
+        assertThat(updated.getDiaryDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(updated.getCreatedAt()).isNull();
+
+        Diary stored = diaryRepository.findById(created.getId()).orElseThrow();
+        assertThat(stored.getContent()).isEqualTo("after");
+        assertThat(stored.getVersion()).isEqualTo(1L);
+        assertThat(stored.getDiaryDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+    }
+
+    @Test
+    void staleVersionIsAConflict() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse created = diaryService.create(request("v0", null, null));
+        diaryService.update(created.getId(), request("v1 from another device", null, 0L));
+
+        assertThatThrownBy(() -> diaryService.update(created.getId(), request("v1 from this device", null, 0L)))
+                .isInstanceOf(ConflictException.class);
+        assertThat(diaryRepository.findById(created.getId())).get()
+                .extracting(Diary::getContent, Diary::getVersion)
+                .containsExactly("v1 from another device", 1L);
+
+        // 不带版本号时不校验，新版本号由加锁读取得出
+        assertThat(diaryService.update(created.getId(), request("forced", null, null)).getVersion()).isEqualTo(2L);
+        assertThat(diaryRepository.findById(created.getId())).get()
+                .extracting(Diary::getVersion).isEqualTo(2L);
+    }
+
+    @Test
+    void missingAndForeignEntriesAreNotFoundRatherThanConflicts() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse foreign = diaryService.create(request("theirs", null, null));
+        TestAuth.loginAsNewUser();
+
+        assertThatThrownBy(() -> diaryService.update(foreign.getId(), request("mine", null, 0L)))
+                .isInstanceOf(NotFoundException.class)
+                .hasMessage("日记不存在");
+        assertThatThrownBy(() -> diaryService.update(Long.MAX_VALUE, request("mine", null, 0L)))
+                .hasMessage("日记不存在");
+        assertThatThrownBy(() -> diaryService.delete(foreign.getId()))
+                .hasMessage("日记不存在");
+        assertThat(diaryRepository.findById(foreign.getId())).isPresent();
+    }
+
+    @Test
+    void conflictIsReportedAs409() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        DiaryResponse created = diaryService.create(request("v0", null, null));
+        diaryService.update(created.getId(), request("v1", null, 0L));
+        String token = jwtService.generateToken(userId, "update-test");
+
+        mockMvc.perform(put("/diaries/" + created.getId())
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\": \"stale\", \"version\": 0}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void batchUpdateChecksVersionPerItem() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse current = diaryService.create(request("current", null, null));
+        DiaryResponse stale = diaryService.create(request("stale", null, null));
+        diaryService.update(stale.getId(), request("moved on", null, 0L));
+
+        List<DiaryBatchResult> results = diaryBatchService.execute(List.of(
+                new DiaryBatchOperation(Type.UPDATE, current.getId(), request("batch", null, 0L)),
+                new DiaryBatchOperation(Type.UPDATE, stale.getId(), request("batch", null, 0L)))).getResults();
+
+        assertThat(results).extracting(DiaryBatchResult::getStatus).containsExactly(200, 409);
+        assertThat(diaryRepository.findById(stale.getId())).get()
+                .extracting(Diary::getContent).isEqualTo("moved on");
+    }
+
+    private static DiaryRequest request(String content, LocalDate diaryDate, Long version) {
+        DiaryRequest request = new DiaryRequest();
+        request.setContent(content);
+        request.setDiaryDate(diaryDate);
+        request.setVersion(version);
+        return request;
+    }
+}
@@ -0,0 +1,134 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiarySlice;
+import com.journal.entity.Diary;
+import com.journal.repository.DiaryRepository;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DiarySliceTest {
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryRepository diaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = TestAuth.loginAsNewUser();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void walksAllPagesInListOrderWithTiesAndUndatedRows() {
+        LocalDate today = LocalDate.of(2024, 5, 10);
+        LocalDateTime noon = LocalDateTime.of(2024, 5, 10, 12, 0);
+        // 同一日期且同一创建时间的行只能靠 id 区分；diary_date 为 NULL 的行排在最后
+        List<Diary> diaries = new ArrayList<>();
+        diaries.add(insert(today, noon));
+        diaries.add(insert(today, noon));
+        diaries.add(insert(today, noon.minusHours(1)));
+        diaries.add(insert(today.minusDays(1), noon));
+        diaries.add(insert(today.minusDays(1), noon.plusDays(1)));
+        diaries.add(insert(null, noon));
+        diaries.add(insert(null, noon));
+        diaries.add(insert(null, noon.minusDays(3)));
+
+        List<Long> expected = diaries.stream()
+                .sorted(Comparator.comparing(Diary::getDiaryDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+                        .thenComparing(Diary::getCreatedAt)
+                        .thenComparing(Diary::getId)
+                        .reversed())
+                .map(Diary::getId)
+                .toList();
+
+        for (int size = 1; size <= 3; size++) {
+            List<Long> seen = new ArrayList<>();
+            DiarySlice slice = diaryService.getSlice("", size).value();
+            while (true) {
+                assertThat(slice.getContent()).hasSizeLessThanOrEqualTo(size);
+                slice.getContent().stream().map(DiaryResponse::getId).forEach(seen::add);
+                if (!slice.isHasNext()) {
+                    assertThat(slice.getNextCursor()).isNull();
+                    break;
+                }
+                slice = diaryService.getSlice(slice.getNextCursor(), size).value();
+            }
+            assertThat(seen).as("page size %d", size).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void emptyListHasNoNextCursor() {
+        DiarySlice slice = diaryService.getSlice("", 20).value();
+
+        assertThat(slice.getContent()).isEmpty();
+        assertThat(slice.isHasNext()).isFalse();
+        assertThat(slice.getNextCursor()).isNull();
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        String token = jwtService.generateToken(userId, "slice-test");
+
+        mockMvc.perform(get("/diaries").param("after", "not a cursor!")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/diaries").param("after", "MjAyNC0wNS0xMHx4fDE")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * 直接写入后改写 created_at，@CreationTimestamp 不允许在插入时指定
+     */
+    private Diary insert(LocalDate diaryDate, LocalDateTime createdAt) {
+        Diary diary = new Diary();
+        diary.setUserId(userId);
+        diary.setTitle("t");
+        diary.setContent("c");
+        diary.setDiaryDate(diaryDate);
+        diary = diaryRepository.save(diary);
+        jdbcTemplate.update("UPDATE diary SET created_at = ? WHERE id = ?", createdAt, diary.getId());
+        diary.setCreatedAt(createdAt);
+        return diary;
+    }
+}
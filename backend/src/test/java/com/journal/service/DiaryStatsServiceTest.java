@@ -0,0 +1,227 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryBatchOperation;
+import com.journal.dto.DiaryBatchOperation.Type;
+import com.journal.dto.DiaryBatchResult;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiaryStatsResponse;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DiaryStatsServiceTest {
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiaryBatchService diaryBatchService;
+
+    @Autowired
+    private DiaryStatsService diaryStatsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        TestAuth.logout();
+    }
+
+    @Test
+    void statsFollowCreateUpdateAndDelete() {
+        Long userId = TestAuth.loginAsNewUser();
+        DiaryResponse first = diaryService.create(request("晴朗的一天", "happy", "sunny", LocalDate.of(2024, 1, 31)));
+        DiaryResponse second = diaryService.create(request("下雨了 but fine", "calm", "rainy", LocalDate.of(2024, 2, 1)));
+        diaryService.create(request("三", "happy", null, LocalDate.of(2024, 2, 2)));
+        assertConsistent(userId);
+
+        // 修改心情、天气、日期与字数，增量按被覆盖的旧值扣减
+        diaryService.update(first.getId(), request("改写后的内容更长一些", "sad", "cloudy", LocalDate.of(2024, 2, 3)));
+        // 未带日期时保持原日期
+        diaryService.update(second.getId(), request("short", "calm", "rainy", null));
+        assertConsistent(userId);
+
+        diaryService.delete(first.getId());
+        DiaryStatsResponse stats = assertConsistent(userId);
+        assertThat(stats.getTotalEntries()).isEqualTo(2);
+        assertThat(stats.getMoods()).doesNotContainKey("sad");
+        assertThat(stats.getLastEntryDate()).isEqualTo(LocalDate.of(2024, 2, 2));
+        assertThat(stats.getLongestStreak()).isEqualTo(2);
+    }
+
+    @Test
+    void batchUpdateFollowedByUpdateOrDeleteOfTheSameDiaryDoesNotDrift() {
+        Long userId = TestAuth.loginAsNewUser();
+        DiaryResponse deletedAfterUpdate = diaryService.create(request("一", "happy", null, LocalDate.of(2024, 3, 1)));
+        DiaryResponse updatedTwice = diaryService.create(request("二", "calm", null, LocalDate.of(2024, 3, 2)));
+        assertConsistent(userId);
+
+        List<DiaryBatchResult> results = diaryBatchService.execute(List.of(
+                new DiaryBatchOperation(Type.UPDATE, deletedAfterUpdate.getId(),
+                        request("这一次改成了很长很长的一段内容", "sad", null, null)),
+                new DiaryBatchOperation(Type.DELETE, deletedAfterUpdate.getId(), null),
+                new DiaryBatchOperation(Type.UPDATE, updatedTwice.getId(),
+                        request("第一次批量修改写了不少字", "calm", null, null)),
+                new DiaryBatchOperation(Type.UPDATE, updatedTwice.getId(),
+                        request("第二次", "tired", null, null)),
+                new DiaryBatchOperation(Type.CREATE, null, request("新建", "happy", "sunny", LocalDate.of(2024, 3, 3)))
+        )).getResults();
+
+        assertThat(results).extracting(DiaryBatchResult::getStatus).containsExactly(200, 204, 200, 200, 201);
+        DiaryStatsResponse stats = assertConsistent(userId);
+        assertThat(stats.getTotalEntries()).isEqualTo(2);
+        assertThat(stats.getTotalWords()).isEqualTo(3 + 2);
+    }
+
+    @Test
+    void etagFollowsTheStatsGenerationAcrossWritesAndRebuilds() {
+        Long userId = TestAuth.loginAsNewUser();
+        diaryService.create(request("第一篇", "happy", null, LocalDate.of(2024, 4, 1)));
+
+        String initial = diaryStatsService.getStats().etag();
+        assertThat(diaryStatsService.getStats().etag()).isEqualTo(initial);
+
+        DiaryResponse second = diaryService.create(request("第二篇", "happy", null, LocalDate.of(2024, 4, 2)));
+        String afterCreate = diaryStatsService.getStats().etag();
+        assertThat(afterCreate).isNotEqualTo(initial);
+
+        // 不影响统计的修改不递增版本
+        diaryService.update(second.getId(), request("第二篇", "happy", null, null));
+        assertThat(diaryStatsService.getStats().etag()).isEqualTo(afterCreate);
+
+        // 重建后统计值不变，但版本继续递增，不会回到先前某个 ETag
+        DiaryStatsResponse before = diaryStatsService.getStats().value();
+        assertThat(diaryStatsService.rebuild()).isEqualTo(before);
+        String afterRebuild = diaryStatsService.getStats().etag();
+        assertThat(afterRebuild).isNotIn(initial, afterCreate);
+
+        TestAuth.loginAsNewUser();
+        diaryService.create(request("另一位用户", "happy", null, LocalDate.of(2024, 4, 1)));
+        assertThat(diaryStatsService.getStats().etag()).isNotIn(initial, afterCreate, afterRebuild);
+        TestAuth.loginAs(userId);
+    }
+
+    @Test
+    void statsAreRebuiltOnFirstReadWhenMissing() {
+        Long userId = TestAuth.loginAsNewUser();
+        diaryService.create(request("已有的日记", "happy", "sunny", LocalDate.of(2024, 5, 1)));
+        diaryService.create(request("另一篇", "calm", null, LocalDate.of(2024, 5, 2)));
+        // 模拟统计表上线前已存在的数据
+        jdbcTemplate.update("DELETE FROM diary_stat WHERE user_id = ?", userId);
+
+        DiaryStatsResponse stats = assertConsistent(userId);
+        assertThat(stats.getTotalEntries()).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildRacingWithCreatesLosesNoEntries() throws Exception {
+        Long userId = TestAuth.loginAsNewUser();
+        diaryService.create(request("种子", "happy", null, LocalDate.of(2024, 6, 1)));
+
+        int writers = 4;
+        int perWriter = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    TestAuth.loginAs(userId);
+                    for (int i = 0; i < perWriter; i++) {
+                        diaryService.create(request("写入者 " + writer + " 第 " + i + " 篇", i % 2 == 0 ? "happy" : "calm",
+                                null, LocalDate.of(2024, 6, 1).plusDays(i)));
+                    }
+                    TestAuth.logout();
+                    return null;
+                }));
+            }
+            Future<?> rebuilder = executor.submit(() -> {
+                TestAuth.loginAs(userId);
+                while (writing.get()) {
+                    diaryStatsService.rebuild();
+                }
+                TestAuth.logout();
+                return null;
+            });
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            rebuilder.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        DiaryStatsResponse stats = assertConsistent(userId);
+        assertThat(stats.getTotalEntries()).isEqualTo(1 + writers * perWriter);
+    }
+
+    /**
+     * 统计接口的结果与直接按日记行汇总的结果一致
+     */
+    private DiaryStatsResponse assertConsistent(Long userId) {
+        TestAuth.loginAs(userId);
+        DiaryStatsResponse stats = diaryStatsService.getStats().value();
+
+        long entries = 0;
+        long words = 0;
+        Map<String, Long> moods = new TreeMap<>();
+        Map<String, Long> weathers = new TreeMap<>();
+        Map<String, Long> entriesByMonth = new TreeMap<>();
+        Map<String, Long> wordsByMonth = new TreeMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(
+                "SELECT mood, weather, diary_date, word_count FROM diary WHERE user_id = ? AND deleted = FALSE", userId)) {
+            long wordCount = ((Number) row.get("word_count")).longValue();
+            String month = row.get("diary_date").toString().substring(0, 7);
+            entries++;
+            words += wordCount;
+            if (row.get("mood") != null) {
+                moods.merge((String) row.get("mood"), 1L, Long::sum);
+            }
+            if (row.get("weather") != null) {
+                weathers.merge((String) row.get("weather"), 1L, Long::sum);
+            }
+            entriesByMonth.merge(month, 1L, Long::sum);
+            wordsByMonth.merge(month, wordCount, Long::sum);
+        }
+
+        assertThat(stats.getTotalEntries()).isEqualTo(entries);
+        assertThat(stats.getTotalWords()).isEqualTo(words);
+        assertThat(stats.getMoods()).isEqualTo(moods);
+        assertThat(stats.getWeathers()).isEqualTo(weathers);
+        assertThat(stats.getEntriesByMonth()).isEqualTo(entriesByMonth);
+        assertThat(stats.getWordsByMonth()).isEqualTo(wordsByMonth);
+        return stats;
+    }
+
+    private static DiaryRequest request(String content, String mood, String weather, LocalDate diaryDate) {
+        DiaryRequest request = new DiaryRequest();
+        request.setContent(content);
+        request.setMood(mood);
+        request.setWeather(weather);
+        request.setDiaryDate(diaryDate);
+        return request;
+    }
+}
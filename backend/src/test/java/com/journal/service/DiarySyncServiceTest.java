@@ -0,0 +1,161 @@
+package com.journal.service;
+
+import com.journal.dto.DiaryChanges;
+import com.journal.dto.DiaryRequest;
+import com.journal.dto.DiaryResponse;
+import com.journal.dto.DiaryTombstone;
+import com.journal.support.TestAuth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DiarySyncServiceTest {
+
+    @Autowired
+    private DiaryService diaryService;
+
+    @Autowired
+    private DiarySyncService diarySyncService;
+
+    private long defaultSettleMillis;
+
+    @BeforeEach
+    void setUp() {
+        defaultSettleMillis = (long) ReflectionTestUtils.getField(diarySyncService, "settleMillis");
+        // 除专门验证静置窗口的用例外，刚写入的变更立即可见
+        ReflectionTestUtils.setField(diarySyncService, "settleMillis", 0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(diarySyncService, "settleMillis", defaultSettleMillis);
+        TestAuth.logout();
+    }
+
+    @Test
+    void cursorReturnsUpdatesAndTombstonesAfterInitialSync() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse kept = diaryService.create(request("kept"));
+        DiaryResponse removed = diaryService.create(request("removed"));
+
+        DiaryChanges initial = diarySyncService.getChanges(null, 100);
+        assertThat(initial.getChanged()).extracting(DiaryResponse::getId)
+                .containsExactly(kept.getId(), removed.getId());
+        assertThat(initial.getDeleted()).isEmpty();
+        assertThat(initial.isHasMore()).isFalse();
+        assertThat(initial.isFullResync()).isFalse();
+        assertThat(initial.getCursor()).isNotNull();
+
+        diaryService.update(kept.getId(), request("kept, edited"));
+        diaryService.delete(removed.getId());
+
+        DiaryChanges delta = diarySyncService.getChanges(initial.getCursor(), 100);
+        assertThat(delta.getChanged()).singleElement().satisfies(diary -> {
+            assertThat(diary.getId()).isEqualTo(kept.getId());
+            assertThat(diary.getContent()).isEqualTo("kept, edited");
+        });
+        assertThat(delta.getDeleted()).singleElement().satisfies(tombstone -> {
+            assertThat(tombstone.getId()).isEqualTo(removed.getId());
+            assertThat(tombstone.getVersion()).isEqualTo(removed.getVersion() + 1);
+            assertThat(tombstone.getDeletedAt()).isNotNull();
+        });
+
+        DiaryChanges idle = diarySyncService.getChanges(delta.getCursor(), 100);
+        assertThat(idle.getChanged()).isEmpty();
+        assertThat(idle.getDeleted()).isEmpty();
+        assertThat(idle.getCursor()).isEqualTo(delta.getCursor());
+    }
+
+    @Test
+    void initialSyncSkipsTombstonesAndDeletedRowsStayInvisible() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse removed = diaryService.create(request("removed"));
+        diaryService.delete(removed.getId());
+
+        DiaryChanges initial = diarySyncService.getChanges(null, 100);
+        assertThat(initial.getChanged()).isEmpty();
+        assertThat(initial.getDeleted()).isEmpty();
+        // 墓碑仍推进游标，下次同步不会再次读到它
+        assertThat(initial.getCursor()).isNotNull();
+
+        assertThatThrownBy(() -> diaryService.getById(removed.getId()))
+                .hasMessage("日记不存在");
+        assertThatThrownBy(() -> diaryService.delete(removed.getId()))
+                .hasMessage("日记不存在");
+    }
+
+    @Test
+    void limitPagesThroughChangesWithoutGapsOrRepeats() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse first = diaryService.create(request("first"));
+        DiaryResponse second = diaryService.create(request("second"));
+        DiaryResponse third = diaryService.create(request("third"));
+
+        DiaryChanges page1 = diarySyncService.getChanges(null, 2);
+        assertThat(page1.isHasMore()).isTrue();
+        DiaryChanges page2 = diarySyncService.getChanges(page1.getCursor(), 2);
+        assertThat(page2.isHasMore()).isFalse();
+
+        assertThat(page1.getChanged()).extracting(DiaryResponse::getId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(page2.getChanged()).extracting(DiaryResponse::getId)
+                .containsExactly(third.getId());
+    }
+
+    @Test
+    void changesInsideSettleWindowAreDeferred() {
+        TestAuth.loginAsNewUser();
+        ReflectionTestUtils.setField(diarySyncService, "settleMillis", 60_000L);
+        DiaryResponse created = diaryService.create(request("pending"));
+
+        DiaryChanges deferred = diarySyncService.getChanges(null, 100);
+        assertThat(deferred.getChanged()).isEmpty();
+        // 游标停在原处，静置期过后这条变更仍会返回
+        assertThat(deferred.getCursor()).isNull();
+
+        ReflectionTestUtils.setField(diarySyncService, "settleMillis", 0L);
+        assertThat(diarySyncService.getChanges(deferred.getCursor(), 100).getChanged())
+                .extracting(DiaryResponse::getId)
+                .containsExactly(created.getId());
+    }
+
+    @Test
+    void cursorOlderThanTombstoneRetentionRequestsFullResync() {
+        TestAuth.loginAsNewUser();
+        DiaryResponse kept = diaryService.create(request("kept"));
+        DiaryResponse removed = diaryService.create(request("removed"));
+        diaryService.delete(removed.getId());
+
+        String staleCursor = LocalDateTime.now().minusDays(365) + ",1";
+        DiaryChanges changes = diarySyncService.getChanges(staleCursor, 100);
+
+        assertThat(changes.isFullResync()).isTrue();
+        assertThat(changes.getChanged()).extracting(DiaryResponse::getId).containsExactly(kept.getId());
+        assertThat(changes.getDeleted()).extracting(DiaryTombstone::getId).isEmpty();
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        TestAuth.loginAsNewUser();
+
+        assertThatThrownBy(() -> diarySyncService.getChanges("not-a-cursor", 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static DiaryRequest request(String content) {
+        DiaryRequest request = new DiaryRequest();
+        request.setContent(content);
+        return request;
+    }
+}
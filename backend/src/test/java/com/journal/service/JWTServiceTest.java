@@ -0,0 +1,71 @@
+package com.journal.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.journal.util.TokenDigest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JWTServiceTest {
+
+    private JWTService jwtService;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = newService(86_400_000L);
+    }
+
+    @Test
+    void cachesVerifiedTokenUnderItsDigest() {
+        String token = jwtService.generateToken(42L, "alice");
+
+        Optional<VerifiedToken> first = jwtService.verify(token);
+        Optional<VerifiedToken> second = jwtService.verify(token);
+
+        assertThat(first).get().extracting(VerifiedToken::userId, VerifiedToken::username)
+                .containsExactly(42L, "alice");
+        assertThat(second).isEqualTo(first);
+        assertThat(cache(jwtService).asMap().keySet())
+                .containsExactly(TokenDigest.sha256Hex(token))
+                .doesNotContain(token);
+    }
+
+    @Test
+    void rejectsTamperedTokenWithoutCachingIt() {
+        String token = jwtService.generateToken(42L, "alice");
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(jwtService.verify(tampered)).isEmpty();
+        assertThat(jwtService.verify("not-a-jwt")).isEmpty();
+        assertThat(cache(jwtService).asMap()).isEmpty();
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        JWTService expiring = newService(-1_000L);
+        String token = expiring.generateToken(42L, "alice");
+
+        assertThat(expiring.verify(token)).isEmpty();
+        assertThat(cache(expiring).asMap()).isEmpty();
+    }
+
+    private static JWTService newService(long expiration) {
+        JWTService service = new JWTService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "secret", "test-secret-key-must-be-at-least-32-characters-long");
+        ReflectionTestUtils.setField(service, "expiration", expiration);
+        ReflectionTestUtils.setField(service, "cacheMaximumSize", 100L);
+        service.init();
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<String, VerifiedToken> cache(JWTService service) {
+        return (Cache<String, VerifiedToken>) ReflectionTestUtils.getField(service, "verifiedTokens");
+    }
+}
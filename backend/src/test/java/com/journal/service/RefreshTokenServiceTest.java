@@ -0,0 +1,95 @@
+package com.journal.service;
+
+import com.journal.dto.LoginResponse;
+import com.journal.entity.RefreshToken;
+import com.journal.repository.RefreshTokenRepository;
+import com.journal.util.TokenDigest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JWTService jwtService;
+
+    @Test
+    void refreshRotatesTokenAndStoresOnlyItsDigest() {
+        Long userId = newUserId();
+        String issued = refreshTokenService.issue(userId, "refresh-test");
+
+        assertThat(refreshTokenRepository.findByTokenHash(issued)).isEmpty();
+        assertThat(refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex(issued))).isPresent();
+
+        LoginResponse response = refreshTokenService.refresh(issued);
+
+        assertThat(response.getUserId()).isEqualTo(userId);
+        assertThat(response.getUsername()).isEqualTo("refresh-test");
+        assertThat(response.getRefreshToken()).isNotEqualTo(issued);
+        assertThat(jwtService.verify(response.getToken())).get()
+                .extracting(VerifiedToken::userId).isEqualTo(userId);
+        assertThat(stored(issued).isRevoked()).isTrue();
+        assertThat(stored(response.getRefreshToken()).isRevoked()).isFalse();
+    }
+
+    @Test
+    void reusingRotatedTokenRevokesEveryTokenOfTheUser() {
+        Long userId = newUserId();
+        String first = refreshTokenService.issue(userId, "refresh-test");
+        String otherDevice = refreshTokenService.issue(userId, "refresh-test");
+        String second = refreshTokenService.refresh(first).getRefreshToken();
+
+        assertThatThrownBy(() -> refreshTokenService.refresh(first))
+                .isInstanceOf(BadCredentialsException.class);
+
+        // 重放被视为泄露：轮换出的新令牌和其他设备的令牌一并作废
+        assertThat(stored(second).isRevoked()).isTrue();
+        assertThat(stored(otherDevice).isRevoked()).isTrue();
+        assertThatThrownBy(() -> refreshTokenService.refresh(second))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void revokedAndExpiredTokensAreRejected() {
+        Long userId = newUserId();
+        String loggedOut = refreshTokenService.issue(userId, "refresh-test");
+        refreshTokenService.revoke(loggedOut);
+
+        assertThatThrownBy(() -> refreshTokenService.refresh(loggedOut))
+                .isInstanceOf(BadCredentialsException.class);
+
+        String expired = refreshTokenService.issue(newUserId(), "refresh-test");
+        RefreshToken token = stored(expired);
+        token.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+        refreshTokenRepository.save(token);
+
+        assertThatThrownBy(() -> refreshTokenService.refresh(expired))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.refresh("unknown-token"))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    private RefreshToken stored(String rawToken) {
+        return refreshTokenRepository.findByTokenHash(TokenDigest.sha256Hex(rawToken)).orElseThrow();
+    }
+
+    private static Long newUserId() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,31 @@
+package com.journal.support;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 测试中模拟已登录用户，每次使用随机 userId，测试之间的数据互不可见
+ */
+public final class TestAuth {
+
+    private TestAuth() {
+    }
+
+    public static Long loginAsNewUser() {
+        Long userId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        loginAs(userId);
+        return userId;
+    }
+
+    public static void loginAs(Long userId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userId, null, Collections.emptyList()));
+    }
+
+    public static void logout() {
+        SecurityContextHolder.clearContext();
+    }
+}
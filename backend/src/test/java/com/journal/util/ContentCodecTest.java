@@ -0,0 +1,133 @@
+package com.journal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContentCodecTest {
+
+    @Test
+    void nullPassesThrough() {
+        assertThat(ContentCodec.encode(null)).isNull();
+        assertThat(ContentCodec.decode(null)).isNull();
+    }
+
+    @Test
+    void contentBelowThresholdIsStoredAsUtf8() {
+        String content = "a".repeat(ContentCodec.COMPRESS_THRESHOLD_BYTES - 1);
+
+        byte[] encoded = ContentCodec.encode(content);
+
+        assertThat(ContentCodec.isCompressed(encoded)).isFalse();
+        assertThat(encoded).isEqualTo(content.getBytes(StandardCharsets.UTF_8));
+        assertThat(ContentCodec.decode(encoded)).isEqualTo(content);
+    }
+
+    @Test
+    void contentAtThresholdIsCompressed() {
+        String content = "a".repeat(ContentCodec.COMPRESS_THRESHOLD_BYTES);
+
+        byte[] encoded = ContentCodec.encode(content);
+
+        assertThat(ContentCodec.isCompressed(encoded)).isTrue();
+        assertThat(encoded.length).isLessThan(ContentCodec.COMPRESS_THRESHOLD_BYTES);
+        assertThat(ContentCodec.decode(encoded)).isEqualTo(content);
+    }
+
+    @Test
+    void thresholdCountsUtf8BytesNotCharacters() {
+        // 170 个汉字为 510 字节
+        String below = "日".repeat(170) + "a";
+        String at = below + "a";
+
+        assertThat(below.getBytes(StandardCharsets.UTF_8)).hasSize(ContentCodec.COMPRESS_THRESHOLD_BYTES - 1);
+        assertThat(ContentCodec.isCompressed(ContentCodec.encode(below))).isFalse();
+        assertThat(ContentCodec.isCompressed(ContentCodec.encode(at))).isTrue();
+        assertThat(ContentCodec.decode(ContentCodec.encode(at))).isEqualTo(at);
+    }
+
+    @Test
+    void incompressibleContentFallsBackToRawBytes() {
+        String content = randomText(new Random(42), 600);
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        assertThat(raw.length).isGreaterThanOrEqualTo(ContentCodec.COMPRESS_THRESHOLD_BYTES);
+
+        byte[] encoded = ContentCodec.encode(content);
+
+        assertThat(ContentCodec.isCompressed(encoded)).isFalse();
+        assertThat(encoded).isEqualTo(raw);
+        assertThat(ContentCodec.decode(encoded)).isEqualTo(content);
+    }
+
+    @Test
+    void multibyteAndEmojiRoundTrip() {
+        String content = "今天去了海边 🌊🏖️，拍了很多照片 📷。日本語のかなも。Ünïcödé ✓\n".repeat(20);
+
+        byte[] encoded = ContentCodec.encode(content);
+
+        assertThat(ContentCodec.isCompressed(encoded)).isTrue();
+        assertThat(ContentCodec.decode(encoded)).isEqualTo(content);
+        assertThat(ContentCodec.decode(ContentCodec.encode("🌊"))).isEqualTo("🌊");
+    }
+
+    @Test
+    void largeContentRoundTrip() {
+        // 解压缓冲区初始为压缩数据的 3 倍，高压缩比的正文需多次扩容
+        String content = "日记".repeat(200_000);
+
+        assertThat(ContentCodec.decode(ContentCodec.encode(content))).isEqualTo(content);
+    }
+
+    @Test
+    void truncatedCompressedDataIsRejected() {
+        byte[] encoded = ContentCodec.encode("truncated ".repeat(100));
+        byte[] truncated = Arrays.copyOf(encoded, encoded.length / 2);
+
+        assertThatThrownBy(() -> ContentCodec.decode(truncated))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void corruptedCompressedDataIsRejected() {
+        byte[] encoded = ContentCodec.encode("corrupted ".repeat(100));
+        byte[] corrupted = encoded.clone();
+        corrupted[corrupted.length - 1] ^= 0x5A;
+
+        assertThatThrownBy(() -> ContentCodec.decode(corrupted))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void markerWithoutPayloadIsRejected() {
+        assertThatThrownBy(() -> ContentCodec.decode(new byte[]{(byte) 0xF8}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void plainRowsWrittenBeforeCompressionDecodeUnchanged() {
+        // 迁移前的历史数据无论长短都是原样的 UTF-8
+        String content = "迁移前写入的长正文，没有压缩标记。".repeat(50);
+
+        assertThat(ContentCodec.decode(content.getBytes(StandardCharsets.UTF_8))).isEqualTo(content);
+        assertThat(ContentCodec.decode(new byte[0])).isEmpty();
+    }
+
+    /**
+     * 随机的 ASCII 与两字节字符各半：字节分布接近均匀，deflate 无法压缩
+     */
+    private static String randomText(Random random, int minBytes) {
+        StringBuilder text = new StringBuilder();
+        int bytes = 0;
+        while (bytes < minBytes) {
+            boolean ascii = random.nextBoolean();
+            text.appendCodePoint(ascii ? random.nextInt(0x80) : random.nextInt(0x80, 0x800));
+            bytes += ascii ? 1 : 2;
+        }
+        return text.toString();
+    }
+}
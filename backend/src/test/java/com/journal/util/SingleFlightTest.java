@@ -0,0 +1,112 @@
+package com.journal.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+
+    private volatile String followerResult;
+    private volatile Throwable followerError;
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("k", () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return "value";
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread follower = startFollower(() -> flights.execute("k", () -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("value");
+        follower.join(5000);
+        assertThat(followerResult).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void loaderExceptionPropagatesToAllWaiters() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("load failed");
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flights.execute("k", () -> {
+            loading.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread follower = startFollower(() -> flights.execute("k", () -> "unused"));
+
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCause(failure);
+        follower.join(5000);
+        assertThat(followerError).isSameAs(failure);
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        assertThatThrownBy(() -> flights.execute("k", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(flights.execute("k", () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void differentKeysLoadIndependently() {
+        assertThat(flights.execute("a", () -> flights.execute("b", () -> "b") + "a")).isEqualTo("ba");
+    }
+
+    /**
+     * 启动跟随者并等到它阻塞在首个调用方的结果上
+     */
+    private Thread startFollower(Supplier<String> call) throws InterruptedException {
+        Thread follower = new Thread(() -> {
+            try {
+                followerResult = call.get();
+            } catch (Throwable e) {
+                followerError = e;
+            }
+        });
+        follower.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (follower.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(follower.getState()).isEqualTo(Thread.State.WAITING);
+        return follower;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
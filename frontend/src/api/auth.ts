@@ -25,10 +25,46 @@ export interface LoginResponse {
   token: string
   userId: number
   username: string
+  refreshToken: string
+  expiresIn: number
 }
 
+export const TOKEN_KEY = 'journal_token'
+export const REFRESH_TOKEN_KEY = 'journal_refresh_token'
+export const USER_KEY = 'journal_user'
+
 export const authApi = {
   login: (data: LoginRequest): Promise<LoginResponse> => {
     return api.post('/auth/login', data)
+  },
+
+  refresh: (refreshToken: string): Promise<LoginResponse> => {
+    return api.post('/auth/refresh', { refreshToken })
+  },
+
+  logout: (refreshToken: string): Promise<void> => {
+    return api.post('/auth/logout', { refreshToken })
+  }
+}
+
+let refreshing: Promise<string | null> | null = null
+
+// 用刷新令牌换取新的访问令牌，并发的 401 共用同一次续期请求；续期失败返回 null
+export const refreshAccessToken = (): Promise<string | null> => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem(REFRESH_TOKEN_KEY)
+    const request = refreshToken
+      ? authApi.refresh(refreshToken).then(response => {
+          localStorage.setItem(TOKEN_KEY, response.token)
+          localStorage.setItem(REFRESH_TOKEN_KEY, response.refreshToken)
+          return response.token
+        })
+      : Promise.resolve(null)
+    refreshing = request
+      .catch(() => null)
+      .finally(() => {
+        refreshing = null
+      })
   }
+  return refreshing
 }
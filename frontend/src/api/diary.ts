@@ -1,5 +1,6 @@
-import axios from 'axios'
-import type { Diary, DiaryRequest, DiaryListResponse } from '@/types/diary'
+import axios, { type InternalAxiosRequestConfig } from 'axios'
+import { refreshAccessToken, TOKEN_KEY, REFRESH_TOKEN_KEY, USER_KEY } from '@/api/auth'
+import type { Diary, DiaryCalendar, DiaryJob, DiaryRequest, DiaryListResponse, DiarySummary } from '@/types/diary'
 
 const api = axios.create({
   baseURL: '/api',
@@ -12,7 +13,7 @@ const api = axios.create({
 // Request interceptor - add token
 api.interceptors.request.use(
   (config) => {
-    const token = localStorage.getItem('journal_token')
+    const token = localStorage.getItem(TOKEN_KEY)
     if (token) {
       config.headers.Authorization = `Bearer ${token}`
     }
@@ -23,13 +24,21 @@ api.interceptors.request.use(
   }
 )
 
-// Response interceptor - handle 401
+// Response interceptor - handle 401: 访问令牌过期时先用刷新令牌续期并重试一次
 api.interceptors.response.use(
   response => response.data,
-  error => {
-    if (error.response?.status === 401) {
-      localStorage.removeItem('journal_token')
-      localStorage.removeItem('journal_user')
+  async error => {
+    const config = error.config as (InternalAxiosRequestConfig & { _retried?: boolean }) | undefined
+    if (error.response?.status === 401 && config && !config._retried) {
+      const token = await refreshAccessToken()
+      if (token) {
+        config._retried = true
+        config.headers.Authorization = `Bearer ${token}`
+        return api(config)
+      }
+      localStorage.removeItem(TOKEN_KEY)
+      localStorage.removeItem(REFRESH_TOKEN_KEY)
+      localStorage.removeItem(USER_KEY)
       window.location.href = '/login'
     }
     const message = error.response?.data?.message || error.message || '请求失败'
@@ -43,6 +52,21 @@ export const diaryApi = {
     return api.get('/diaries', { params: { page, size } })
   },
 
+  // 获取日记摘要列表（不含正文）
+  getSummaries: (page: number = 0, size: number = 20): Promise<DiaryListResponse<DiarySummary>> => {
+    return api.get('/diaries/summaries', { params: { page, size } })
+  },
+
+  // 获取日期范围内的日记摘要（yyyy-MM-dd，含首尾）
+  getRange: (from: string, to: string): Promise<DiarySummary[]> => {
+    return api.get('/diaries/range', { params: { from, to } })
+  },
+
+  // 获取月历（yyyy-MM）
+  getCalendar: (month: string): Promise<DiaryCalendar> => {
+    return api.get('/diaries/calendar', { params: { month } })
+  },
+
   // 获取单篇日记
   getById: (id: number): Promise<Diary> => {
     return api.get(`/diaries/${id}`)
@@ -66,5 +90,20 @@ export const diaryApi = {
   // 搜索日记
   search: (keyword: string, page: number = 0, size: number = 20): Promise<DiaryListResponse> => {
     return api.get('/diaries/search', { params: { keyword, page, size } })
+  },
+
+  // 提交后台导出任务
+  submitExportJob: (format: string = 'json', gzip: boolean = false): Promise<DiaryJob> => {
+    return api.post('/diaries/export-jobs', null, { params: { format, gzip } })
+  },
+
+  // 查询后台任务状态
+  getJob: (id: number): Promise<DiaryJob> => {
+    return api.get(`/diaries/jobs/${id}`)
+  },
+
+  // 下载已完成的导出任务文件
+  downloadJobFile: (id: number): Promise<Blob> => {
+    return api.get(`/diaries/jobs/${id}/file`, { responseType: 'blob' })
   }
 }
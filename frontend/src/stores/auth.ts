@@ -1,9 +1,6 @@
 import { defineStore } from 'pinia'
 import { ref, computed } from 'vue'
-import { authApi, type LoginRequest } from '@/api/auth'
-
-const TOKEN_KEY = 'journal_token'
-const USER_KEY = 'journal_user'
+import { authApi, TOKEN_KEY, REFRESH_TOKEN_KEY, USER_KEY } from '@/api/auth'
 
 export interface User {
   userId: number
@@ -33,6 +30,7 @@ export const useAuthStore = defineStore('auth', () => {
         username: response.username
       }
       localStorage.setItem(TOKEN_KEY, response.token)
+      localStorage.setItem(REFRESH_TOKEN_KEY, response.refreshToken)
       localStorage.setItem(USER_KEY, JSON.stringify(user.value))
     } catch (e) {
       error.value = e instanceof Error ? e.message : '登录失败'
@@ -43,9 +41,14 @@ export const useAuthStore = defineStore('auth', () => {
   }
 
   const logout = () => {
+    const refreshToken = localStorage.getItem(REFRESH_TOKEN_KEY)
+    if (refreshToken) {
+      authApi.logout(refreshToken).catch(() => undefined)
+    }
     token.value = null
     user.value = null
     localStorage.removeItem(TOKEN_KEY)
+    localStorage.removeItem(REFRESH_TOKEN_KEY)
     localStorage.removeItem(USER_KEY)
   }
 
@@ -1,10 +1,10 @@
 import { defineStore } from 'pinia'
 import { ref } from 'vue'
-import type { Diary, DiaryRequest } from '@/types/diary'
+import type { Diary, DiaryRequest, DiarySummary } from '@/types/diary'
 import { diaryApi } from '@/api/diary'
 
 export const useDiaryStore = defineStore('diary', () => {
-  const diaries = ref<Diary[]>([])
+  const diaries = ref<(Diary | DiarySummary)[]>([])
   const currentDiary = ref<Diary | null>(null)
   const totalElements = ref(0)
   const totalPages = ref(0)
@@ -17,7 +17,7 @@ export const useDiaryStore = defineStore('diary', () => {
     loading.value = true
     error.value = null
     try {
-      const response = await diaryApi.getList(page, 20)
+      const response = await diaryApi.getSummaries(page, 20)
       if (reset || page === 0) {
         diaries.value = response.content
       } else {
@@ -71,15 +71,22 @@ export const useDiaryStore = defineStore('diary', () => {
     loading.value = true
     error.value = null
     try {
-      const updatedDiary = await diaryApi.update(id, data)
+      const response = await diaryApi.update(id, data)
+      // 更新接口不回查整行：createdAt 不返回，未修改的 diaryDate 为空，需保留本地已有的值
+      const merge = (existing: Diary): Diary => ({
+        ...existing,
+        ...response,
+        createdAt: existing.createdAt,
+        diaryDate: response.diaryDate ?? existing.diaryDate
+      })
       const index = diaries.value.findIndex(d => d.id === id)
       if (index !== -1) {
-        diaries.value[index] = updatedDiary
+        diaries.value[index] = merge(diaries.value[index])
       }
       if (currentDiary.value?.id === id) {
-        currentDiary.value = updatedDiary
+        currentDiary.value = merge(currentDiary.value)
       }
-      return updatedDiary
+      return response
     } catch (e) {
       error.value = e instanceof Error ? e.message : '更新日记失败'
       throw e
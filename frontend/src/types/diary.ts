@@ -7,6 +7,21 @@ export interface Diary {
   diaryDate: string
   createdAt: string
   updatedAt: string
+  version: number
+}
+
+// 列表摘要，不含正文
+export interface DiarySummary {
+  id: number
+  title: string | null
+  preview: string
+  wordCount: number
+  mood: string | null
+  weather: string | null
+  diaryDate: string
+  createdAt: string
+  updatedAt: string
+  version: number
 }
 
 export interface DiaryRequest {
@@ -15,10 +30,12 @@ export interface DiaryRequest {
   mood?: string
   weather?: string
   diaryDate?: string
+  // 编辑时携带读取到的版本号，用于检测多设备并发修改
+  version?: number
 }
 
-export interface DiaryListResponse {
-  content: Diary[]
+export interface DiaryListResponse<T = Diary> {
+  content: T[]
   totalElements: number
   totalPages: number
   size: number
@@ -27,6 +44,29 @@ export interface DiaryListResponse {
   last: boolean
 }
 
+// 月历：days 的第 i 位表示该月第 i + 1 天有日记，moods 为每天最后一篇日记的心情
+export interface DiaryCalendar {
+  month: string
+  days: number
+  moods: (string | null)[]
+}
+
+// 后台任务：导出完成后 fileSize 为文件大小；导入 / 重建搜索副本的结果在 result 中
+export interface DiaryJob {
+  id: number
+  type: 'EXPORT' | 'IMPORT' | 'REINDEX'
+  status: 'QUEUED' | 'RUNNING' | 'SUCCEEDED' | 'FAILED'
+  format: string | null
+  gzip: boolean
+  fileSize: number | null
+  result: Record<string, unknown> | null
+  error: string | null
+  attempts: number
+  createdAt: string
+  startedAt: string | null
+  finishedAt: string | null
+}
+
 export interface ErrorResponse {
   message: string
 }